@@ -0,0 +1,75 @@
+/**
+ * AIPrimitivesBenchmark.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the primitives under the AI search on the corpus positions
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AIPrimitivesBenchmark {
+	@Param({"15", "19"})
+	public int boardSize;
+	
+	@Param({"0", "1", "2"})
+	public int position;
+	
+	private Gomoku gomoku;
+	private AI ai;
+	private int probeCell;		//an empty cell next to the last move
+	private int role;			//the player to move
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		gomoku = Positions.play(boardSize, position);
+		ai = new AI(gomoku);
+		Move lastMove = gomoku.getLastMove();
+		int[][] board = gomoku.getBoard();
+		role = gomoku.getCurrent();
+		probeCell = -1;
+		for (int i = lastMove.getRow()-1; i <= lastMove.getRow()+1 && probeCell < 0; i++)
+			for (int j = lastMove.getCol()-1; j <= lastMove.getCol()+1 && probeCell < 0; j++)
+				if (gomoku.indexLegalCheck(i, j) && board[i][j] == Gomoku.EMPTY)
+					probeCell = i * boardSize + j;
+	}
+	
+	@Benchmark
+	public int updateScore() {
+		ai.doMove(probeCell, role);
+		ai.retreat(probeCell, role);
+		return probeCell;
+	}
+	
+	@Benchmark
+	public int evaluate() {
+		return ai.evaluate();
+	}
+	
+	@Benchmark
+	public int generateMoves() {
+		return ai.generateMoves(role, 0);
+	}
+}
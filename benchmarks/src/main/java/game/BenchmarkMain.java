@@ -0,0 +1,29 @@
+/**
+ * BenchmarkMain.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the GC profiler, so every result comes with its allocation bytes per op
+ * (gc.alloc.rate.norm) next to ops/s. Accepts the usual JMH command line, e.g. "SearchBenchmark -p threads=1,2,4".
+ */
+public class BenchmarkMain {
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * GomokuBenchmark.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the winning condition check on the last move of the corpus positions
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GomokuBenchmark {
+	@Param({"15", "19"})
+	public int boardSize;
+	
+	@Param({"0", "1", "2"})
+	public int position;
+	
+	private Gomoku gomoku;
+	private int row;
+	private int col;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		gomoku = Positions.play(boardSize, position);
+		Move lastMove = gomoku.getLastMove();
+		row = lastMove.getRow();
+		col = lastMove.getCol();
+	}
+	
+	@Benchmark
+	public boolean isWin() {
+		return gomoku.isWin(row, col, gomoku.getBitBoard());
+	}
+	
+	@Benchmark
+	public boolean isWinOnArray() {
+		return gomoku.isWin(row, col, gomoku.getBoard());
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * NodeCount.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.time.Duration;
+
+/**
+ * Count the nodes a fixed-depth search visits on every position of the corpus game from the 6th move on, the
+ * suite move ordering and pruning changes are measured by. The threat solver is off, so only the full search
+ * is counted. Usage:
+ * 
+ * <pre>
+ * java -cp benchmarks.jar game.NodeCount depth=10 size=15 deepen=true pvs=false aspiration=false
+ * </pre>
+ * 
+ * deepen searches iteratively from depth 1, which aspiration windows need.
+ */
+public class NodeCount {
+	private static final int FIRST_PLY = 6;
+	
+	public static void main(String[] args) {
+		int depth = 10, boardSize = Gomoku.DEF_BOARD_SIZE;
+		boolean deepen = false, pvs = true, aspiration = true;
+		for (String arg : args) {
+			String[] keyValue = arg.split("=", 2);
+			if (keyValue.length != 2)
+				throw new IllegalArgumentException("Options should be key=value, got " + arg);
+			switch (keyValue[0]) {
+			case "depth": depth = Integer.parseInt(keyValue[1]); break;
+			case "size": boardSize = Integer.parseInt(keyValue[1]); break;
+			case "deepen": deepen = Boolean.parseBoolean(keyValue[1]); break;
+			case "pvs": pvs = Boolean.parseBoolean(keyValue[1]); break;
+			case "aspiration": aspiration = Boolean.parseBoolean(keyValue[1]); break;
+			default: throw new IllegalArgumentException("Unknown option " + keyValue[0]);
+			}
+		}
+		
+		long total = 0;
+		long start = System.nanoTime();
+		for (int plies=FIRST_PLY; plies<Positions.LENGTH; plies++) {
+			Gomoku gomoku = Positions.playPlies(boardSize, plies);
+			AI ai = new AI(gomoku);
+			ai.setThreatBudget(0, Duration.ZERO);
+			ai.setPrincipalVariationSearch(pvs);
+			ai.setAspirationWindows(aspiration);
+			Move move = ai.nextMove(deepen ? 1 : depth, depth, 0);
+			total += ai.getNodes();
+			System.out.printf("plies=%d nodes=%d move=%d,%d%n", plies, ai.getNodes(), move.getRow(), move.getCol());
+		}
+		System.out.printf("depth=%d total nodes=%d ms=%d%n", depth, total, (System.nanoTime() - start) / 1000000);
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Positions.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * The fixed corpus of mid-game positions the benchmarks run on. The positions come from one AI-vs-AI game on
+ * 15x15, larger boards play the same moves shifted to the center.
+ */
+public class Positions {
+	private static final String GAME = 
+			"7,7 8,8 5,7 8,7 8,6 6,8 7,8 7,6 6,5 6,7 6,10 5,8 8,5 4,9 3,10 7,5 4,10 5,10 6,11 6,9 "
+			+ "5,9 7,10 4,7 8,11 9,12 3,7 7,4 5,6 8,10 7,11 6,3 5,2 9,6 10,7 7,12 10,12 8,3 8,4 9,2 10,1";
+	
+	/**
+	 * How many moves were played in each position of the corpus
+	 */
+	public static final int[] PLIES = {12, 24, 36};
+	
+	/**
+	 * How many moves the corpus game has
+	 */
+	public static final int LENGTH = GAME.split(" ").length;
+	
+	/**
+	 * Build a game at one of the corpus positions, with the AI to move
+	 * 
+	 * @param boardSize how many rows or columns on the board, at least 15
+	 * @param position index into PLIES
+	 * @return the game after PLIES[position] moves
+	 */
+	public static Gomoku play(int boardSize, int position) {
+		return playPlies(boardSize, PLIES[position]);
+	}
+	
+	/**
+	 * Build a game after the first moves of the corpus game
+	 * 
+	 * @param boardSize how many rows or columns on the board, at least 15
+	 * @param plies how many moves to play, at most LENGTH
+	 * @return the game after the moves
+	 */
+	public static Gomoku playPlies(int boardSize, int plies) {
+		Gomoku gomoku = new Gomoku(boardSize, Gomoku.DEF_WIN_LENGTH, false, false);
+		int shift = (boardSize - Gomoku.DEF_BOARD_SIZE) / 2;
+		String[] moves = GAME.split(" ");
+		for (int i=0; i<plies; i++) {
+			String[] rowCol = moves[i].split(",");
+			if (!gomoku.makeAMove(Integer.parseInt(rowCol[0]) + shift, Integer.parseInt(rowCol[1]) + shift))
+				throw new IllegalStateException("Illegal move in the corpus: " + moves[i]);
+		}
+		return gomoku;
+	}
+}
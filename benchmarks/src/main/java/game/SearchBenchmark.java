@@ -0,0 +1,70 @@
+/**
+ * SearchBenchmark.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a full AI.nextMove() search on the corpus positions, by board size and search threads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+	@Param({"15", "19"})
+	public int boardSize;
+	
+	@Param({"0", "1", "2"})
+	public int position;
+	
+	@Param({"1", "2", "4"})
+	public int threads;
+	
+	private AI ai;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		ai = new AI(Positions.play(boardSize, position));
+		ai.setThreads(threads);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		ai.setThreads(1);
+	}
+	
+	/*
+	 * nextMove() leaves its own move on the AI's board, start every search from the corpus position again
+	 */
+	@Setup(Level.Invocation)
+	public void resetSearch() {
+		ai.getTranspositionTable().clear();
+		ai.initScore();
+	}
+	
+	@Benchmark
+	public Move nextMove() {
+		return ai.nextMove();
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * SessionFootprint.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.List;
+
+/**
+ * Measure the heap an idle game takes: fill the heap with games after the first moves of the corpus game, kept
+ * as GameStates as the GameServer keeps them, then as a Gomoku with its own AI, and print the bytes per game.
+ * Usage:
+ * 
+ * <pre>
+ * java -Xmx256m -cp benchmarks.jar game.SessionFootprint sessions=100000 moves=20 full=1000 tableBits=12
+ * </pre>
+ * 
+ * full is how many Gomoku and AI pairs to measure, tableBits the size of their transposition tables. The
+ * numbers are for reading only; GameStateFootprintTest is the check that fails the build.
+ */
+public class SessionFootprint {
+	public static void main(String[] args) {
+		int sessions = 100000, moves = 20, full = 1000, tableBits = 12;
+		for (String arg : args) {
+			String[] keyValue = arg.split("=", 2);
+			if (keyValue.length != 2)
+				throw new IllegalArgumentException("Options should be key=value, got " + arg);
+			switch (keyValue[0]) {
+			case "sessions": sessions = Integer.parseInt(keyValue[1]); break;
+			case "moves": moves = Integer.parseInt(keyValue[1]); break;
+			case "full": full = Integer.parseInt(keyValue[1]); break;
+			case "tableBits": tableBits = Integer.parseInt(keyValue[1]); break;
+			default: throw new IllegalArgumentException("Unknown option " + keyValue[0]);
+			}
+		}
+		List<Move> game = Positions.playPlies(Gomoku.DEF_BOARD_SIZE, moves).getMoves();
+		
+		long before = usedHeap();
+		GameState[] states = new GameState[sessions];
+		for (int i=0; i<sessions; i++) {
+			states[i] = new GameState(Gomoku.DEF_BOARD_SIZE, Gomoku.DEF_WIN_LENGTH);
+			for (Move move : game)
+				states[i].play(move.getRow(), move.getCol());
+		}
+		long compact = (usedHeap() - before) / sessions;
+		System.out.printf("GameState: %d games of %d moves, %d bytes per idle game%n", sessions, moves, compact);
+		if (states[sessions - 1].getMoveCount() != game.size())
+			throw new IllegalStateException("The games were not played");
+		states = null;
+		
+		before = usedHeap();
+		Gomoku[] games = new Gomoku[full];
+		AI[] ais = new AI[full];
+		for (int i=0; i<full; i++) {
+			Gomoku gomoku = new Gomoku(Gomoku.DEF_BOARD_SIZE, Gomoku.DEF_WIN_LENGTH, true, false);
+			for (Move move : game)
+				gomoku.makeAMove(move.getRow(), move.getCol());
+			games[i] = gomoku;
+			ais[i] = new AI(gomoku, new TranspositionTable(tableBits, TranspositionTable.Replacement.DEPTH_PREFERRED));
+		}
+		long paired = (usedHeap() - before) / full;
+		System.out.printf("Gomoku and AI: %d games of %d moves, %d bytes per idle game (%d without the table)%n",
+				full, moves, paired, paired - (16L << tableBits));
+		if (ais[full - 1] == null || games[full - 1].getMoveCount() != game.size())
+			throw new IllegalStateException("The games were not played");
+	}
+	
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i=0; i<3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
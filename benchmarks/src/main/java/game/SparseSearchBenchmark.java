@@ -0,0 +1,63 @@
+/**
+ * SparseSearchBenchmark.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a full SparseAI.nextMove() search on the corpus positions, by board size, 0 for the unbounded
+ * board. The cost should not depend on the board size, compare with SearchBenchmark on 15x15.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SparseSearchBenchmark {
+	@Param({"15", "51", "0"})
+	public int boardSize;
+	
+	@Param({"0", "1", "2"})
+	public int position;
+	
+	private SparseAI ai;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		ai = new SparseAI(boardSize, Gomoku.DEF_WIN_LENGTH);
+		int shift = boardSize == 0 ? -Gomoku.DEF_BOARD_SIZE / 2 : (boardSize - Gomoku.DEF_BOARD_SIZE) / 2;
+		for (Move move : Positions.play(Gomoku.DEF_BOARD_SIZE, position).getMoves())
+			ai.play(move.getRow() + shift, move.getCol() + shift);
+	}
+	
+	/*
+	 * nextMove() doesn't play its move, only the table carries over from one search to the next
+	 */
+	@Setup(Level.Invocation)
+	public void resetSearch() {
+		ai.getTranspositionTable().clear();
+	}
+	
+	@Benchmark
+	public Move nextMove() {
+		return ai.nextMove();
+	}
+}
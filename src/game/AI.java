@@ -6,62 +6,245 @@
  */
 package game;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class build an AI for gomoku by using minimax with alpha beta pruning algorithm.
  */
 public class AI {
 	private static final boolean DEBUG = false;
+	//Check every incremental evaluation against a full board scan, run with -Dgame.verifyEval=true
+	private static final boolean VERIFY_EVAL = Boolean.getBoolean("game.verifyEval");
 	private static final int MAX = 10 * Score.FIVE.val();
 	private static final int MIN = -MAX;
 	private static final int DEPTH = 10;
-	private static final int CHILDREN_LIMIT = 3;
+	private static final int MAX_DEPTH = 32;			//deepest iteration of a time-budgeted search
+	private static final int MAX_PLY = MAX_DEPTH + 2;	//how many move buffers the search may need
+	private static final int CLOCK_CHECK_NODES = 256;	//how often the deadline is checked, in nodes
+	static final int CHILDREN_LIMIT = 3;		//default width of a quiet node
+	static final int LMR_MOVES = 3;			//default count of moves searched at full depth before reducing
+	static final int LMR_PLIES = 0;			//default plies a late quiet move is reduced by
+	static final int FUTILITY_MARGIN = 0;	//default futility margin per ply of depth
+	private static final int LMR_DEPTH = 2;				//shallowest depth a late move is reduced at
+	private static final int FUTILITY_DEPTH = 2;		//deepest depth a quiet move may be pruned as futile at
+	private static final int KILLERS = 2;				//killer moves remembered per ply
+	private static final int ASPIRATION_WINDOW = Score.DOUBLE_THREE.val();	//half width of the root aspiration window
 	private static final int OPENING_MOVES = 3;
+	private static final int VCF_DEPTH = 16;			//most attacker moves in a victory by continuous fours
+	private static final int VCT_DEPTH = 6;				//most attacker moves in a victory by fours and threes
+	private static final int THREAT_PLY = 2 * VCF_DEPTH + 2;	//how many threat move buffers the solver may need
+	private static final int THREAT_NODES = 300;		//default node budget of the threat solver
+	private static final long THREAT_NANOS = 20000000;	//default time budget of the threat solver, 20ms
+	static final int QUIESCENCE_NODES = 32;		//default node budget of the quiescence search at a leaf
+	private static final int QUIESCENCE_PLY = 8;		//most forcing moves the quiescence search plays past a leaf
+	private static final int PONDER_REPLIES = 3;		//how many opponent replies pondering searches
+	private static final int MOVE_REQUESTS = 4;			//how many requested moves may wait for the searching thread
+	
+	//Tiers of the candidate moves in generateMoves(), a lower tier is searched first. SparseAI orders its moves
+	//by the same tiers and threat classes.
+	static final int OP_FIVE = 0;
+	static final int MY_FOUR_THREE = 1;
+	static final int OP_FOUR_THREE = 2;
+	static final int MY_DOUBLE_THREE = 3;
+	static final int OP_DOUBLE_THREE = 4;
+	static final int MY_HALF_OPEN_FOUR = 5;
+	static final int OP_HALF_OPEN_FOUR = 6;
+	static final int MY_THREE = 7;
+	static final int OP_THREE = 8;
+	static final int MY_TWO = 9;
+	static final int THE_REST = 10;
+	static final int TIERS = 11;
+	
+	//Threat classes of a position's score for one player, each class holds the scores from its threshold up to
+	//the class above; scores below TWO have no class
+	static final int C_FIVE = 0;
+	static final int C_FOUR_THREE = 1;
+	static final int C_DOUBLE_THREE = 2;
+	static final int C_HALF_OPEN_FOUR = 3;
+	static final int C_THREE = 4;
+	static final int C_TWO = 5;
+	static final int CLASSES = 6;
+	static final int[] CLASS_THRESHOLDS = {Score.FIVE.val(), Score.HALF_FOUR_AND_THREE.val(),
+			Score.DOUBLE_THREE.val(), Score.HALF_OPEN_FOUR.val(), Score.THREE.val(), Score.TWO.val()};
+	
 	private Gomoku gomoku;
-	private int[][] board;
-	private int[][] p1Score;
-	private int[][] p2Score;
+	private BitBoard board;
+	private int[] p1Score;		//p1Score[row * colSize + col]: the score of the position for player1
+	private int[] p2Score;		//p2Score[row * colSize + col]: the score of the position for player2
+	private int scoreTotal;		//sum of p2Score - p1Score over the board, kept up to date by setScore()
 	private int winLength;
 	private int rowSize;
 	private int colSize;
-
+	private Zobrist zobrist;
+	private TranspositionTable table;
+	private PatternTable patterns;
+	private long hash;			//Zobrist hash of board, kept up to date by doMove() and retreat()
+	private int rootDepth;		//depth of the current iteration
+	private long deadline;		//System.nanoTime() the search must stop at
+	private boolean timed;		//true if the current search has a deadline
+	private boolean aborted;	//true once the deadline has passed, the running iteration is discarded
+	private volatile boolean stopped;	//set by the main search to stop a helper search
+	private int clockCountdown;	//nodes to visit before checking the clock again
+	private int pvMove;			//best root move of the last completed iteration, packed as row * colSize + col
+	private int rootMove;		//best root move of the running iteration
+	private long nodes;			//how many nodes this AI has searched, over all its moves
+	private boolean pvs = true;			//search the moves after the first with a zero window
+	private boolean aspiration = true;	//start each iteration with a window around the last one's score
+	
+	//Selective search: how wide quiet nodes are, how much late quiet moves are reduced, when they are futile
+	private int childrenLimit = CHILDREN_LIMIT;
+	private int lmrMoves = LMR_MOVES;	//moves searched at full depth before the quiet ones are reduced
+	private int lmrReduction = LMR_PLIES;		//plies a late quiet move is reduced by, 0 for none
+	private int futilityMargin = FUTILITY_MARGIN;	//most a quiet move is expected to gain per ply of depth, 0 for no pruning
+	
+	//Statistics of the running search, plain counters so they cost next to nothing without listeners
+	private long evaluations;	//how many leaves were evaluated
+	private long[] cutoffs;		//cutoffs[ply]: how many alpha-beta cut-offs happened at the ply
+	private int maxPly;			//the deepest ply visited
+	private long reductions;	//how many late moves were searched at a reduced depth
+	private long researches;	//how many of the reduced moves had to be searched again at full depth
+	private long futilityPrunes;	//how many quiet moves were skipped as futile
+	private List<SearchListener> listeners = new CopyOnWriteArrayList<>();
+	
+	//Move buffers reused by every search, one per ply, so a search allocates nothing after warm-up
+	private long[][] moveKeys;	//moveKeys[ply]: candidates packed as tier, score and position for sorting
+	private int[][] moves;		//moves[ply]: the generated moves, packed as row * colSize + col
+	private int[][] moveScores;	//moveScores[ply]: the score each generated move was ordered by
+	
+	//Move ordering learnt from cut-offs: two killer moves per ply and a history score per player and cell
+	private int[][] killers;	//killers[ply]: the last two moves that cut off at the ply, NO_MOVE if none
+	private int[][] history;	//history[player][cell]: depth^2 summed over the cut-offs the move made
+	
+	//Candidate bookkeeping kept up to date by doMove(), retreat() and setScore(), so generateMoves() only visits
+	//the cells that matter. Bitsets are indexed like the BitBoard: cell i is bit (i & 63) of word (i >>> 6).
+	private long[][][] threats;	//threats[player][class]: the cells whose score for player is in the class
+	private int[] nearStones;	//nearStones[cell]: how many stones share a line with the cell within winLength-1
+	private long[] frontier;	//the cells with nearStones > 0, the only ones a stone gives a score
+	
+	//Threat solver: searches only the four and three making moves for a forced win before the full search
+	private int threatNodeLimit = THREAT_NODES;
+	private long threatTimeLimit = THREAT_NANOS;
+	private int threatNodes;		//nodes visited by the running threat search
+	private long threatDeadline;	//System.nanoTime() the threat search must stop at
+	private boolean threatAborted;	//true once the threat budget ran out
+	private int[][] threatMoves;	//threatMoves[ply]: the candidates of the threat search at the ply
+	private int[] threatLine;		//threatLine[ply]: the move of the threat sequence being searched at the ply
+	private int threatLineLength;	//how many moves the last proven win takes
+	private List<Move> winLine = new ArrayList<>();
+	
+	//Quiescence search: past the nominal depth only fours and threes are played, until the position is quiet
+	private int quiescenceNodeLimit = QUIESCENCE_NODES;
+	private int quiescenceNodes;		//nodes visited by the running quiescence search
+	private long quiescenceTotal;		//nodes visited by the quiescence searches of the running search
+	private int[][] quiescenceMoves;	//quiescenceMoves[qply]: the forcing moves at the quiescence ply
+	
+	private OpeningBook book;	//moves to play without searching, null if none
+	private SearchCache cache;	//results of earlier searches, shared across games and processes, null if none
+	
+	//Lazy SMP: helpers search the same position on their own boards, sharing the transposition table
+	private AI[] helpers;
+	private ExecutorService helperPool;
+	
+	//Pondering: after each move a ponderer searches the likely replies on its own board, sharing the table
+	private ExecutorService ponderPool;	//null while pondering is off
+	private AI ponderer;				//the ponderer of the last move, its results stay readable once stopped
+	private Future<?> pondering;		//the running ponder search, null if none
+	private int ponderCount;			//how many replies the ponderer searches
+	private long[] ponderHashes;		//ponderHashes[i]: the hash of the position after reply i
+	private int[] ponderDepths;			//ponderDepths[i]: the deepest completed search after reply i, 0 if none
+	private int[] ponderMoves;			//ponderMoves[i]: the best answer to reply i found by that search
+	private int[] ponderScores;			//ponderScores[i]: its score
+	
+	//Asynchronous moves: requestMove() searches on a single thread with a bounded queue
+	private ThreadPoolExecutor requestPool;
+	private volatile CompletableFuture<Move> request;	//the request being searched, null if none
+	private final Object searching = new Object();		//guards request changes, notified when a search ends
+	private SearchProgress progress;					//the progress callback of that request, null if none
+	
 	/**
 	 * Constructor, build an AI player
 	 * 
 	 * @param gomoku a gomoku game instance
 	 */
 	public AI(Gomoku gomoku) {
+		this(gomoku, new TranspositionTable());
+	}
+	
+	/**
+	 * Constructor, build an AI player with a given transposition table
+	 * 
+	 * @param gomoku a gomoku game instance
+	 * @param table the transposition table for the search
+	 */
+	public AI(Gomoku gomoku, TranspositionTable table) {
 		this.gomoku = gomoku;
+		this.table = table;
 		this.winLength = gomoku.getWinLength();
 		
-		//hard copy gomoku.board for board initialization
 		int[][] board = gomoku.getBoard();
 		this.rowSize = board.length;
 		this.colSize = board[0].length;
-		this.board = new int[rowSize][colSize];
-		this.p1Score = new int[rowSize][colSize];
-		this.p2Score = new int[rowSize][colSize];
+		this.board = new BitBoard(rowSize, colSize);
+		this.p1Score = new int[rowSize * colSize];
+		this.p2Score = new int[rowSize * colSize];
+		this.zobrist = new Zobrist(rowSize, colSize);
+		this.patterns = PatternTable.forWinLength(winLength);
+		this.moveKeys = new long[MAX_PLY][];
+		this.moves = new int[MAX_PLY][];
+		this.moveScores = new int[MAX_PLY][];
+		this.killers = new int[MAX_PLY][KILLERS];
+		this.history = new int[Gomoku.PLAYER2 + 1][rowSize * colSize];
+		resetOrdering();
+		int words = (rowSize * colSize + 63) >>> 6;
+		this.threats = new long[Gomoku.PLAYER2 + 1][CLASSES][words];
+		this.nearStones = new int[rowSize * colSize];
+		this.frontier = new long[words];
+		this.cutoffs = new long[MAX_PLY];
+		this.threatMoves = new int[THREAT_PLY][];
+		this.threatLine = new int[THREAT_PLY];
+		this.quiescenceMoves = new int[QUIESCENCE_PLY][];
 		
 		if (gomoku.getStep() > OPENING_MOVES)
 			initScore();
 	}
 	
 	/*
-	 * Traverse the entire board to calculate a score for each position
+	 * Traverse the entire board to calculate a score for each position. This and the other package-private
+	 * methods are used by the benchmarks.
 	 */
-	private void initScore() {
-		int[][] board = gomoku.getBoard();
-		this.board = new int[rowSize][];
-		for (int i=0; i<rowSize; i++) {
-			this.board[i] = board[i].clone();
-		}
+	void initScore() {
+		//hard copy gomoku's board for board initialization
+		this.board = gomoku.getBitBoard().copy();
+		hash = zobrist.hash(gomoku.getBoard());
+		Arrays.fill(p1Score, 0);
+		Arrays.fill(p2Score, 0);
+		scoreTotal = 0;
+		for (long[][] classes : threats)
+			for (long[] bucket : classes)
+				Arrays.fill(bucket, 0);
+		Arrays.fill(nearStones, 0);
+		Arrays.fill(frontier, 0);
 		
-		for (int i=0; i<rowSize; i++) 
-			for (int j=0; j<colSize; j++)  
+		for (int i=0; i<rowSize; i++)
+			for (int j=0; j<colSize; j++) {
 				setScore(i, j);
+				if (board.get(i, j) != Gomoku.EMPTY)
+					updateFrontier(i, j, 1);
+			}
 	}
 	
 	/**
@@ -70,104 +253,1174 @@ public class AI {
 	 * @return the move in current AI's turn
 	 */
 	public Move nextMove() {
+		return nextMove(DEPTH, DEPTH, 0);
+	}
+	
+	/**
+	 * Return the next move by AI searching to a given depth
+	 * 
+	 * @param depth how many plies to search, from 1 to 32
+	 * @return the move in current AI's turn
+	 */
+	public Move nextMove(int depth) {
+		if (depth < 1 || depth > MAX_DEPTH)
+			throw new IllegalArgumentException("depth should be in [1, " + MAX_DEPTH + "], got " + depth);
+		return nextMove(depth, depth, 0);
+	}
+	
+	/**
+	 * Return the next move by AI within a time budget. The search deepens iteratively from depth 1 and returns
+	 * the best move of the deepest iteration completed before the budget runs out.
+	 * 
+	 * @param budget how long the search may take
+	 * @return the move in current AI's turn
+	 */
+	public Move nextMove(Duration budget) {
+		return nextMove(1, MAX_DEPTH, Math.max(1, budget.toNanos()));
+	}
+	
+	/*
+	 * Search iteratively from minDepth to maxDepth, a positive budget in nanoseconds stops it at the deadline.
+	 * Package-private for the benchmarks, which deepen to a fixed depth.
+	 */
+	Move nextMove(int minDepth, int maxDepth, long budget) {
+		stopPondering();
 		Move aiNextMove;
 		int step = gomoku.getStep();
+		Move bookMove = book == null ? null : book.probe(gomoku);
 		if (step <= OPENING_MOVES) {
-			aiNextMove = openingMove();
+			aiNextMove = bookMove != null ? bookMove : openingMove();
+		} else if (bookMove != null) {
+			if (step <= OPENING_MOVES+2)
+				initScore();
+			Move lastMove = gomoku.getLastMove();
+			doMove(lastMove.getRow() * colSize + lastMove.getCol(), lastMove.getPlayer());
+			if (hash != zobrist.hash(gomoku.getBoard()))
+				initScore();
+			doMove(bookMove.getRow() * colSize + bookMove.getCol(), bookMove.getPlayer());
+			winLine = new ArrayList<>();
+			aiNextMove = bookMove;
 		} else {
 			//initialize the score when start using real AI
-			if (step > OPENING_MOVES && step <= OPENING_MOVES+2) {
-				int[][] board = gomoku.getBoard();
-				for (int i=0; i<rowSize; i++)
-					this.board[i] = board[i].clone();
+			if (step > OPENING_MOVES && step <= OPENING_MOVES+2)
+				initScore();
+			
+			Move lastMove = gomoku.getLastMove();
+			int lastCell = lastMove.getRow() * colSize + lastMove.getCol();
+			doMove(lastCell, lastMove.getPlayer());
+			//The game changed behind the AI's back, a move was taken back or a search cancelled
+			if (hash != zobrist.hash(gomoku.getBoard()))
 				initScore();
+			long start = System.nanoTime();
+			long startNodes = nodes + helperNodes();
+			long ttHits = table.getHits(), ttMisses = table.getMisses(), ttCollisions = table.getCollisions();
+			evaluations = 0;
+			quiescenceTotal = 0;
+			reductions = 0;
+			researches = 0;
+			futilityPrunes = 0;
+			maxPly = 0;
+			Arrays.fill(cutoffs, 0);
+			resetOrdering();
+			table.newSearch();
+			timed = budget > 0;
+			deadline = System.nanoTime() + budget;
+			aborted = false;
+			clockCountdown = CLOCK_CHECK_NODES;
+			pvMove = TranspositionTable.NO_MOVE;
+			
+			//A forced win by threats makes the full search unnecessary
+			int role = gomoku.getCurrent();
+			int bestMove = solveThreats(role, timed ? Math.min(threatTimeLimit, budget / 4) : threatTimeLimit);
+			int bestScore = 0, completedDepth = 0, previousScore = 0;
+			if (bestMove != TranspositionTable.NO_MOVE) {
+				bestScore = role == Gomoku.PLAYER1 ? MIN+1 : MAX-1;
+				minDepth = maxDepth + 1;
+			}
+			
+			//A pondered reply searched deep enough is answered at once, a shallower search orders the first iteration
+			for (int i=0; ponderer != null && i<ponderer.ponderCount && bestMove == TranspositionTable.NO_MOVE; i++) {
+				if (ponderer.ponderHashes[i] != hash || ponderer.ponderDepths[i] == 0)
+					continue;
+				pvMove = ponderer.ponderMoves[i];
+				if (ponderer.ponderDepths[i] >= maxDepth) {
+					bestMove = ponderer.ponderMoves[i];
+					bestScore = ponderer.ponderScores[i];
+					completedDepth = ponderer.ponderDepths[i];
+					minDepth = maxDepth + 1;
+				}
+			}
+			ponderer = null;
+			
+			//A cached search deep enough is played as is, a shallower one orders the first iteration
+			int symmetry = 0;
+			long canonicalHash = 0;
+			if (cache != null && bestMove == TranspositionTable.NO_MOVE) {
+				symmetry = Symmetry.canonical(zobrist, gomoku.getBoard());
+				canonicalHash = zobrist.hash(gomoku.getBoard(), symmetry);
+				long cached = cache.probe(canonicalHash);
+				int cachedMove = cached == 0 ? TranspositionTable.NO_MOVE : SearchCache.move(cached);
+				if (cachedMove != TranspositionTable.NO_MOVE)
+					cachedMove = mapCell(Symmetry.inverse(symmetry), cachedMove);
+				if (cachedMove != TranspositionTable.NO_MOVE
+						&& board.get(cachedMove / colSize, cachedMove % colSize) == Gomoku.EMPTY) {
+					pvMove = cachedMove;
+					if (SearchCache.depth(cached) >= maxDepth) {
+						bestMove = cachedMove;
+						bestScore = SearchCache.score(cached);
+						completedDepth = SearchCache.depth(cached);
+						minDepth = maxDepth + 1;
+					}
+				}
 			}
 			
-			Move lastMove = gomoku.getMoves().peek();
-			doMove(new Node(lastMove.getRow(), lastMove.getCol(), lastMove.getPlayer()));
-			Node lastNode = new Node(lastMove.getRow(), lastMove.getCol(), lastMove.getPlayer());
-			Node node = negamax(lastNode, DEPTH, MIN, MAX);
-			aiNextMove = new Move(node.row, node.col, gomoku.getCurrent(), gomoku.getStep());
-			doMove(node);
+			List<Future<?>> helping = minDepth > maxDepth ? new ArrayList<>() : startHelpers(lastCell, lastMove.getPlayer(), maxDepth);
+			for (rootDepth = minDepth; rootDepth <= maxDepth; rootDepth++) {
+				int score;
+				if (aspiration && rootDepth > minDepth + 1) {
+					//A score outside the window is only a bound, search again with the full one
+					int low = previousScore - ASPIRATION_WINDOW;
+					int high = previousScore + ASPIRATION_WINDOW;
+					score = negamax(lastCell, lastMove.getPlayer(), rootDepth, 0, low, high);
+					if (!aborted && (score <= low || score >= high))
+						score = negamax(lastCell, lastMove.getPlayer(), rootDepth, 0, MIN, MAX);
+				} else {
+					score = negamax(lastCell, lastMove.getPlayer(), rootDepth, 0, MIN, MAX);
+				}
+				if (aborted) break;
+				bestMove = rootMove;
+				previousScore = bestScore;
+				bestScore = score;
+				completedDepth = rootDepth;
+				pvMove = rootMove;
+				if (progress != null)
+					progress.iterationFinished(new Move(rootMove / colSize, rootMove % colSize, gomoku.getCurrent(),
+							gomoku.getStep()), rootDepth, score);
+				//No need to look deeper once the game result is settled
+				if (score <= MIN+1 || score >= MAX-1) break;
+				if (timed && System.nanoTime() - deadline >= 0) break;
+			}
+			stopHelpers(helping);
+			if (cancelled())
+				throw new CancellationException("The move request was cancelled");
+			if (cache != null && completedDepth > 0 && minDepth <= maxDepth)
+				cache.store(canonicalHash, completedDepth, bestScore, mapCell(symmetry, bestMove));
+			aiNextMove = new Move(bestMove / colSize, bestMove % colSize, gomoku.getCurrent(), gomoku.getStep());
+			doMove(bestMove, gomoku.getCurrent());
+			if (ponderPool != null && !board.isWin(bestMove / colSize, bestMove % colSize, winLength))
+				startPondering(bestMove);
+			
+			if (!listeners.isEmpty()) {
+				SearchStats stats = new SearchStats(aiNextMove, bestScore, completedDepth, maxPly,
+						nodes + helperNodes() - startNodes, evaluations, quiescenceTotal, reductions, researches,
+						futilityPrunes, Arrays.copyOf(cutoffs, maxPly + 1),
+						table.getHits() - ttHits, table.getMisses() - ttMisses, table.getCollisions() - ttCollisions,
+						System.nanoTime() - start);
+				for (SearchListener listener : listeners)
+					listener.searchFinished(stats);
+			}
 		}
 		if (DEBUG) System.out.println("----------------------------------------------------------------------------");
 		return aiNextMove;
 	}
 	
+	/**
+	 * Ask for the next move without waiting for it, searching to the default depth of nextMove(), see
+	 * requestMove(int, SearchProgress)
+	 * 
+	 * @param progress the callback of the search progress, null if none
+	 * @return the future move in current AI's turn
+	 */
+	public CompletableFuture<Move> requestMove(SearchProgress progress) {
+		return submit(1, DEPTH, 0, progress);
+	}
+	
+	/**
+	 * Ask for the next move without waiting for it. The search deepens iteratively from depth 1 on this AI's
+	 * searching thread, reporting every completed iteration to progress. Cancelling the future stops the search
+	 * within a few hundred nodes and leaves the game untouched; don't change the game before the search has
+	 * stopped, cancelMove() waits for it. Requests are searched one at a time, at most 4 may wait; the future of
+	 * a request beyond that fails with a RejectedExecutionException. Don't call nextMove() while a request is
+	 * pending.
+	 * 
+	 * @param depth		how many plies to search, from 1 to 32
+	 * @param progress	the callback of the search progress, null if none
+	 * @return the future move in current AI's turn
+	 */
+	public CompletableFuture<Move> requestMove(int depth, SearchProgress progress) {
+		if (depth < 1 || depth > MAX_DEPTH)
+			throw new IllegalArgumentException("depth should be in [1, " + MAX_DEPTH + "], got " + depth);
+		return submit(1, depth, 0, progress);
+	}
+	
+	/**
+	 * Ask for the next move within a time budget without waiting for it, see requestMove(int, SearchProgress)
+	 * 
+	 * @param budget	how long the search may take once it starts
+	 * @param progress	the callback of the search progress, null if none
+	 * @return the future move in current AI's turn
+	 */
+	public CompletableFuture<Move> requestMove(Duration budget, SearchProgress progress) {
+		return submit(1, MAX_DEPTH, Math.max(1, budget.toNanos()), progress);
+	}
+	
 	/*
-	 * Minimax algorithm with alpha beta pruning
+	 * Queue a search on the searching thread, a request cancelled while queued is skipped
+	 */
+	private synchronized CompletableFuture<Move> submit(int minDepth, int maxDepth, long budget, SearchProgress progress) {
+		if (requestPool == null)
+			requestPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MOVE_REQUESTS),
+					runnable -> {
+						Thread thread = new Thread(runnable, "gomoku-ai-search");
+						thread.setDaemon(true);
+						return thread;
+					});
+		CompletableFuture<Move> future = new CompletableFuture<>();
+		try {
+			requestPool.execute(() -> {
+				synchronized (searching) {
+					if (future.isDone())
+						return;
+					request = future;
+				}
+				this.progress = progress;
+				try {
+					future.complete(nextMove(minDepth, maxDepth, budget));
+				} catch (RuntimeException e) {
+					future.completeExceptionally(e);
+				} finally {
+					this.progress = null;
+					synchronized (searching) {
+						request = null;
+						searching.notifyAll();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+	
+	/**
+	 * Cancel a requested move and wait until its search has stopped. Cancelling the future alone returns at once
+	 * while the search still reads the game for a few hundred nodes; after this returns the game may be changed,
+	 * a move taken back for one.
+	 * 
+	 * @param move the future of requestMove()
 	 */
-	private Node negamax(Node probeNode, int depth, int alpha, int beta) {
-		Node bestMove = probeNode.role == Gomoku.PLAYER1 ? new Node(MIN) : new Node(MAX);
+	public void cancelMove(CompletableFuture<Move> move) {
+		move.cancel(true);
+		synchronized (searching) {
+			while (request == move) {
+				try {
+					searching.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Check if the move request being searched was cancelled
+	 */
+	private boolean cancelled() {
+		CompletableFuture<Move> current = request;
+		return current != null && current.isCancelled();
+	}
+	
+	/*
+	 * Minimax algorithm with alpha beta pruning. lastCell is the move lastRole just made, the score of the
+	 * position is returned and the best move at the root is left in rootMove.
+	 */
+	private int negamax(int lastCell, int lastRole, int depth, int ply, int alpha, int beta) {
+		int role = roleReversal(lastRole);
+		nodes++;
+		if (ply > maxPly) maxPly = ply;
 		
 		//The base case
-		if (gomoku.isWin(probeNode.row, probeNode.col, board)) {
-			if (depth == DEPTH) 
-				return generateMoves(roleReversal(probeNode.role)).get(0);
-			else 
-				return probeNode.role == Gomoku.PLAYER1 ? new Node(MIN+1) : new Node(MAX-1);
-		}
-		if (depth <= 0) 
-			return new Node(evaluate());
-		
-		probeNode.children = generateMoves(roleReversal(probeNode.role));
-		for (Node node : probeNode.children) {
-			doMove(node);
-			node.score = negamax(node, depth-1, alpha, beta).score;
-			retreat(node);
+		if (board.isWin(lastCell / colSize, lastCell % colSize, winLength)) {
+			if (ply == 0) {
+				generateMoves(role, ply);
+				rootMove = moves[ply][0];
+			}
+			return lastRole == Gomoku.PLAYER1 ? MIN+1 : MAX-1;
+		}
+		if (depth <= 0) {
+			if (quiescenceNodeLimit == 0) {
+				evaluations++;
+				return evaluate();
+			}
+			quiescenceNodes = 0;
+			return quiesce(role, ply, 0, alpha, beta);
+		}
+		
+		//Look up the transposition table, a deep enough entry settles the position without searching
+		int alphaOrigin = alpha;
+		int betaOrigin = beta;
+		long entry = table.probe(hash);
+		int ttMove = TranspositionTable.NO_MOVE;
+		if (entry != 0) {
+			ttMove = TranspositionTable.move(entry);
+			if (ply != 0 && TranspositionTable.depth(entry) >= depth) {
+				int score = TranspositionTable.score(entry);
+				switch (TranspositionTable.bound(entry)) {
+				case TranspositionTable.EXACT: return score;
+				case TranspositionTable.LOWER: alpha = Math.max(alpha, score); break;
+				case TranspositionTable.UPPER: beta = Math.min(beta, score); break;
+				}
+				if (alpha >= beta)
+					return score;
+			}
+		}
+		
+		int count = generateMoves(role, ply);
+		if (count == 0) //a full board is a draw
+			return 0;
+		orderMoves(role, ply, count);
+		int[] children = moves[ply];
+		if (ttMove != TranspositionTable.NO_MOVE)
+			moveToFront(ply, count, ttMove);
+		if (ply == 0 && pvMove != TranspositionTable.NO_MOVE)
+			moveToFront(ply, count, pvMove);
+		
+		//According to evaluate(), Player2 expects max score, Player1 expects minimum score
+		boolean maximizing = role == Gomoku.PLAYER2;
+		int bestScore = maximizing ? MIN : MAX;
+		int bestMove = TranspositionTable.NO_MOVE;
+		//Near the leaves a quiet move can't bring a position far enough below the window up into it
+		boolean futile = false;
+		if (futilityMargin > 0 && depth <= FUTILITY_DEPTH && ply != 0) {
+			int margin = futilityMargin * depth;
+			futile = maximizing ? evaluate() + margin <= alpha : evaluate() - margin >= beta;
+		}
+		for (int i=0; i<count; i++) {
+			int cell = children[i];
+			boolean quiet = i > 0 && isQuiet(cell);
+			if (futile && quiet) {
+				futilityPrunes++;
+				continue;
+			}
+			int reduction = quiet && i >= lmrMoves && depth >= LMR_DEPTH ? Math.min(lmrReduction, depth-1) : 0;
+			doMove(cell, role);
+			int score = bestScore;
+			if (i == 0 || !pvs && reduction == 0) {
+				score = negamax(cell, role, depth-1, ply+1, alpha, beta);
+			} else {
+				//Search a late quiet move shallower first, and at full depth only if it proves better
+				boolean better = true;
+				if (reduction > 0) {
+					reductions++;
+					score = scout(cell, role, depth-1-reduction, ply, alpha, beta);
+					better = maximizing ? score > alpha : score < beta;
+					if (better) researches++;
+				}
+				//Prove the move is no better than the best so far with a zero window, search it fully if it is
+				if (better && pvs && !aborted) {
+					score = scout(cell, role, depth-1, ply, alpha, beta);
+					better = score > alpha && score < beta;
+				}
+				if (better && !aborted)
+					score = negamax(cell, role, depth-1, ply+1, alpha, beta);
+			}
+			retreat(cell, role);
+			if (aborted || isTimeUp())
+				return bestScore;
 			
-			if (DEBUG) System.out.println(printNode(node, depth) + ", children:" + Integer.toString(probeNode.children.size()));
+			if (DEBUG) System.out.println(printMove(cell, role, score, depth) + ", children:" + count);
 			
-			//According to evaluate(), Player2 expects max score, Player1 expects minimum score
-			if (probeNode.role == Gomoku.PLAYER1) { //means node.role == player2 who expects max score
-				if (node.compareTo(bestMove) > 0) bestMove = node;
-				if (node.score > alpha) alpha = node.score;
-			} else { 								//player who expects minimum score
-				if (node.compareTo(bestMove) < 0) bestMove = node;
-				if (node.score < beta) beta = node.score;
+			if (maximizing) {
+				if (score > bestScore) {
+					bestScore = score;
+					bestMove = cell;
+				}
+				if (score > alpha) alpha = score;
+			} else {
+				if (score < bestScore) {
+					bestScore = score;
+					bestMove = cell;
+				}
+				if (score < beta) beta = score;
 			}
 			if (alpha >= beta) { //cut-off
-				probeNode.isCut = true;
+				cutoffs[ply]++;
+				rememberCutoff(role, ply, depth, cell);
+				break;
+			}
+		}
+		
+		int bound = TranspositionTable.EXACT;
+		if (bestScore <= alphaOrigin) bound = TranspositionTable.UPPER;
+		else if (bestScore >= betaOrigin) bound = TranspositionTable.LOWER;
+		table.store(hash, depth, bound, bestScore, bestMove);
+		if (ply == 0)
+			rootMove = bestMove;
+		return bestScore;
+	}
+	
+	/*
+	 * Search the move role just made at cell with a zero window at the bound role has to beat, alpha when
+	 * maximizing and beta otherwise
+	 */
+	private int scout(int cell, int role, int depth, int ply, int alpha, int beta) {
+		if (role == Gomoku.PLAYER2)
+			return negamax(cell, role, depth, ply+1, alpha, alpha+1);
+		return negamax(cell, role, depth, ply+1, beta-1, beta);
+	}
+	
+	/*
+	 * Check if a move neither makes nor blocks a three or better, the moves selective search may cut short
+	 */
+	private boolean isQuiet(int cell) {
+		return p1Score[cell] < Score.THREE.val() && p2Score[cell] < Score.THREE.val();
+	}
+	
+	/*
+	 * Quiescence search at a leaf of negamax, role to move. The static evaluation stands unless role has a five
+	 * to block, and only role's four and three making moves are searched past it, until none is left, the
+	 * quiescence budget runs out or QUIESCENCE_PLY forcing moves are played.
+	 */
+	private int quiesce(int role, int ply, int qply, int alpha, int beta) {
+		if (ply > maxPly) maxPly = ply;
+		boolean maximizing = role == Gomoku.PLAYER2;
+		int win = maximizing ? MAX-1 : MIN+1;
+		long[][] myThreats = threats[role];
+		long[][] opThreats = threats[roleReversal(role)];
+		if (!isEmpty(myThreats[C_FIVE]))
+			return win;
+		int opFive = firstCell(opThreats[C_FIVE], 0);
+		if (opFive >= 0 && firstCell(opThreats[C_FIVE], opFive+1) >= 0) //two fives can't both be blocked
+			return -win;
+		
+		evaluations++;
+		int standPat = evaluate();
+		if (qply == QUIESCENCE_PLY)
+			return standPat;
+		if (quiescenceMoves[qply] == null) //all the plies at once, like the threat search
+			for (int i=0; i<QUIESCENCE_PLY; i++)
+				quiescenceMoves[i] = new int[rowSize * colSize];
+		int[] candidates = quiescenceMoves[qply];
+		int count = 0;
+		int bestScore;
+		if (opFive >= 0) {
+			//Not quiet, the five must be blocked whatever it costs
+			candidates[count++] = opFive;
+			bestScore = -win;
+		} else {
+			bestScore = standPat;
+			if (maximizing ? standPat >= beta : standPat <= alpha)
+				return standPat;
+			if (maximizing) alpha = Math.max(alpha, standPat);
+			else beta = Math.min(beta, standPat);
+			//Fours first, then threes; broken threes score a little below THREE
+			int[] myScore = maximizing ? p2Score : p1Score;
+			for (int c=C_FOUR_THREE; c<=C_THREE; c++)
+				for (int w=0; w<frontier.length; w++)
+					for (long bits = myThreats[c][w]; bits != 0; bits &= bits - 1)
+						candidates[count++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+			for (int w=0; w<frontier.length; w++)
+				for (long bits = frontier[w] & board.emptyWord(w); bits != 0; bits &= bits - 1) {
+					int cell = (w << 6) + Long.numberOfTrailingZeros(bits);
+					if (myScore[cell] >= Score.THREE.val() - Score.ONE.val() && myScore[cell] < Score.THREE.val())
+						candidates[count++] = cell;
+				}
+		}
+		
+		int searched = 0;
+		for (; searched<count; searched++) {
+			if (++quiescenceNodes > quiescenceNodeLimit)
+				break;
+			nodes++;
+			quiescenceTotal++;
+			int cell = candidates[searched];
+			doMove(cell, role);
+			int score = board.isWin(cell / colSize, cell % colSize, winLength) ? win
+					: quiesce(roleReversal(role), ply+1, qply+1, alpha, beta);
+			retreat(cell, role);
+			if (maximizing ? score > bestScore : score < bestScore)
+				bestScore = score;
+			if (maximizing) alpha = Math.max(alpha, score);
+			else beta = Math.min(beta, score);
+			if (alpha >= beta)
 				break;
+		}
+		//A block the budget left unsearched falls back on the static evaluation
+		return searched == 0 && opFive >= 0 ? standPat : bestScore;
+	}
+	
+	/*
+	 * Check the clock every CLOCK_CHECK_NODES nodes, the first iteration always runs to the end to have a move
+	 */
+	private boolean isTimeUp() {
+		if (--clockCountdown > 0)
+			return false;
+		clockCountdown = CLOCK_CHECK_NODES;
+		if (stopped || cancelled() || timed && rootDepth > 1 && System.nanoTime() - deadline >= 0)
+			aborted = true;
+		return aborted;
+	}
+	
+	/**
+	 * Set the budget of the threat solver, which looks for a forced win by continuous fours (VCF) and then by
+	 * fours and threes (VCT) before every full search. A zero node budget turns it off.
+	 * 
+	 * @param maxNodes	how many nodes the solver may visit per move
+	 * @param maxTime	how long the solver may take per move, a timed move gives it at most a quarter of its budget
+	 */
+	public void setThreatBudget(int maxNodes, Duration maxTime) {
+		if (maxNodes < 0)
+			throw new IllegalArgumentException("maxNodes should not be negative, got " + maxNodes);
+		this.threatNodeLimit = maxNodes;
+		this.threatTimeLimit = Math.max(1, maxTime.toNanos());
+	}
+	
+	/**
+	 * Set the node budget of the quiescence search, which goes on past the nominal depth at every leaf with the
+	 * four and three making moves of the player to move, and the block of a five, until the position is quiet.
+	 * The static evaluation is only trusted once no threat is left to play, so a shallower search sees the
+	 * tactics a deeper one would. A zero budget turns it off; it's 32 nodes a leaf by default.
+	 * 
+	 * @param maxNodes how many nodes the quiescence search may visit past each leaf
+	 */
+	public void setQuiescenceBudget(int maxNodes) {
+		if (maxNodes < 0)
+			throw new IllegalArgumentException("maxNodes should not be negative, got " + maxNodes);
+		quiescenceNodeLimit = maxNodes;
+		updateHelpers();
+	}
+	
+	/**
+	 * Set how many candidates a quiet node searches, one where neither player has a double three or better to
+	 * play. Forcing nodes search all of their threats and blocks whatever the width. With late-move reductions
+	 * and futility pruning the extra moves cost little, so a search can afford 10 to 20 of them. It's 3 by
+	 * default.
+	 * 
+	 * @param width how many moves a quiet node searches at most
+	 */
+	public void setChildrenLimit(int width) {
+		if (width < 1)
+			throw new IllegalArgumentException("width should be positive, got " + width);
+		childrenLimit = width;
+		updateHelpers();
+	}
+	
+	/**
+	 * Set the late-move reductions. After the first moves of a node, the quiet ones, which neither make nor
+	 * block a three, are searched a few plies shallower with a zero window; only a move that proves better is
+	 * searched again at full depth. A move is never reduced past the leaves, where the quiescence search takes
+	 * over. They're off by default.
+	 * 
+	 * @param fullMoves	how many moves of a node are searched at full depth before reducing
+	 * @param plies		how many plies a late quiet move is reduced by, 0 to turn reductions off
+	 */
+	public void setLateMoveReductions(int fullMoves, int plies) {
+		if (fullMoves < 1)
+			throw new IllegalArgumentException("fullMoves should be positive, got " + fullMoves);
+		if (plies < 0)
+			throw new IllegalArgumentException("plies should not be negative, got " + plies);
+		lmrMoves = fullMoves;
+		lmrReduction = plies;
+		updateHelpers();
+	}
+	
+	/**
+	 * Set the futility margin. At the last 2 plies before the leaves, when the static evaluation is more than
+	 * the margin times the remaining depth short of the best score so far, the quiet moves of the node are
+	 * skipped and only its first move and its threats are searched. It's off by default.
+	 * 
+	 * @param margin most a quiet move is expected to gain per ply, 0 to turn futility pruning off
+	 */
+	public void setFutilityMargin(int margin) {
+		if (margin < 0)
+			throw new IllegalArgumentException("margin should not be negative, got " + margin);
+		futilityMargin = margin;
+		updateHelpers();
+	}
+	
+	/*
+	 * Give the helper searches the settings of this AI
+	 */
+	private void updateHelpers() {
+		if (helpers != null)
+			for (AI helper : helpers)
+				helper.copySettings(this);
+	}
+	
+	/*
+	 * Search the way another AI does, for the helper and pondering searches
+	 */
+	private void copySettings(AI other) {
+		pvs = other.pvs;
+		quiescenceNodeLimit = other.quiescenceNodeLimit;
+		childrenLimit = other.childrenLimit;
+		lmrMoves = other.lmrMoves;
+		lmrReduction = other.lmrReduction;
+		futilityMargin = other.futilityMargin;
+	}
+	
+	/**
+	 * Get the forced win the threat solver proved on the last move, starting with that move. The line alternates
+	 * between the winner and the loser; when the loser has several defences it follows one of them.
+	 * 
+	 * @return the moves of the win, empty if the last move didn't come from a proven win
+	 */
+	public List<Move> getWinLine() {
+		return winLine;
+	}
+	
+	/**
+	 * Set how many threads search a move. With more than one thread the extra ones run helper searches of the
+	 * same position on their own boards (Lazy SMP); they share this AI's transposition table, so each thread
+	 * finds the positions the others have already searched.
+	 * 
+	 * @param threads how many threads to search with, 1 for a single-threaded search
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads should be positive, got " + threads);
+		if (helperPool != null)
+			helperPool.shutdown();
+		helpers = new AI[threads - 1];
+		helperPool = null;
+		if (threads > 1) {
+			for (int i=0; i<helpers.length; i++) {
+				helpers[i] = new AI(gomoku, table);
+				helpers[i].copySettings(this);
+			}
+			helperPool = Executors.newFixedThreadPool(threads - 1, runnable -> {
+				Thread thread = new Thread(runnable, "gomoku-ai-helper");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	/**
+	 * Turn principal variation search on or off. With it on, the first move of every node is searched with the
+	 * full window and the others with a zero window around the best score, only a move that proves better is
+	 * searched again with the full window. It's on by default.
+	 * 
+	 * @param on true to search with zero windows
+	 */
+	public void setPrincipalVariationSearch(boolean on) {
+		pvs = on;
+		updateHelpers();
+	}
+	
+	/**
+	 * Set the opening book to play from. Whenever the position is in the book its move is played at once,
+	 * without a search.
+	 * 
+	 * @param book the book, null to search every move
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		if (book != null && (book.getBoardSize() != rowSize || book.getBoardSize() != colSize
+				|| book.getWinLength() != winLength))
+			throw new IllegalArgumentException("The opening book is for a " + book.getBoardSize() + "x"
+					+ book.getBoardSize() + " board with " + book.getWinLength() + " in a row");
+		this.book = book;
+	}
+	
+	/**
+	 * Set the cache of search results to warm-start from. Before searching, the position is looked up: a result
+	 * searched at least as deep as asked for is played at once, a shallower one gives the first move to try.
+	 * Every completed search is written back. One cache may be shared by several AIs on any threads.
+	 * 
+	 * @param cache the cache, null to search without one
+	 */
+	public void setSearchCache(SearchCache cache) {
+		if (cache != null && (cache.getBoardSize() != rowSize || cache.getBoardSize() != colSize
+				|| cache.getWinLength() != winLength))
+			throw new IllegalArgumentException("The search cache is for a " + cache.getBoardSize() + "x"
+					+ cache.getBoardSize() + " board with " + cache.getWinLength() + " in a row");
+		this.cache = cache;
+	}
+	
+	/**
+	 * Turn pondering on or off. With it on, every searched move is followed by a background search of the
+	 * opponent's likely replies: the one the search predicted first, then the other best candidates, one ply
+	 * deeper each round. When the opponent plays one of them, a pondered search at least as deep as asked for
+	 * is answered without searching, and a shallower one leaves its results in the shared transposition table.
+	 * The next nextMove() stops pondering, so the game may be changed while the AI ponders.
+	 * 
+	 * @param on true to ponder on the opponent's time
+	 */
+	public void setPondering(boolean on) {
+		stopPondering();
+		if (on && ponderPool == null) {
+			ponderPool = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "gomoku-ai-ponder");
+				thread.setDaemon(true);
+				return thread;
+			});
+		} else if (!on && ponderPool != null) {
+			ponderPool.shutdown();
+			ponderPool = null;
+			ponderer = null;
+		}
+	}
+	
+	/**
+	 * Stop the running ponder search, if any, and wait for it to leave the shared table. Call it when the game
+	 * ends or a move is taken back, the next nextMove() calls it anyway.
+	 */
+	public synchronized void stopPondering() {
+		if (pondering == null)
+			return;
+		ponderer.stopped = true;
+		try {
+			pondering.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Ponder search failed", e.getCause());
+		}
+		pondering = null;
+	}
+	
+	/*
+	 * Play for another game of the same board size and win length from now on. Used by AIPool, which lends
+	 * its AIs to one game at a time so an idle game holds none.
+	 */
+	void setGame(Gomoku gomoku) {
+		if (gomoku.getGridNum() != rowSize || gomoku.getWinLength() != winLength)
+			throw new IllegalArgumentException("The AI plays " + winLength + " in a row on a " + rowSize + "x"
+					+ colSize + " board");
+		stopPondering();
+		ponderer = null;
+		this.gomoku = gomoku;
+		if (helpers != null)
+			for (AI helper : helpers)
+				helper.gomoku = gomoku;
+		if (gomoku.getStep() > OPENING_MOVES)
+			initScore();
+	}
+	
+	/**
+	 * Turn aspiration windows on or off. With them on, every iteration of a deepening search after the second
+	 * searches the root with a window around the score of the iteration two plies shallower, whose leaves have
+	 * the same player to move, and again with the full window when the score falls outside. It's on by default.
+	 * 
+	 * @param on true to search the root with aspiration windows
+	 */
+	public void setAspirationWindows(boolean on) {
+		aspiration = on;
+	}
+	
+	/**
+	 * Get how many threads search a move
+	 * 
+	 * @return thread count
+	 */
+	public int getThreads() {
+		return helpers == null ? 1 : helpers.length + 1;
+	}
+	
+	/*
+	 * Start the helper searches, every second helper searches one ply deeper so the threads diverge
+	 */
+	private List<Future<?>> startHelpers(int lastCell, int lastRole, int maxDepth) {
+		List<Future<?>> helping = new ArrayList<>();
+		if (helperPool == null) 
+			return helping;
+		for (int i=0; i<helpers.length; i++) {
+			AI helper = helpers[i];
+			int depthOffset = i % 2 == 0 ? 1 : 0;
+			helper.stopped = false;
+			helping.add(helperPool.submit(() -> helper.helpSearch(lastCell, lastRole, 1 + depthOffset, maxDepth + depthOffset)));
+		}
+		return helping;
+	}
+	
+	/*
+	 * Look for a forced win of role by continuous fours, then by fours and threes, within the threat budget.
+	 * The first move of the win is returned and the whole line left in winLine, NO_MOVE if none was found.
+	 */
+	private int solveThreats(int role, long timeLimit) {
+		winLine = new ArrayList<>();
+		if (threatNodeLimit == 0)
+			return TranspositionTable.NO_MOVE;
+		//All the plies at once, a threat line reaching deeper than the last one then allocates nothing
+		if (threatMoves[0] == null)
+			for (int ply=0; ply<THREAT_PLY; ply++)
+				threatMoves[ply] = new int[rowSize * colSize];
+		threatNodes = 0;
+		threatDeadline = System.nanoTime() + timeLimit;
+		threatAborted = false;
+		threatLineLength = 0;
+		if (!threatDeepening(role, VCF_DEPTH, false) && !threatDeepening(role, VCT_DEPTH, true))
+			return TranspositionTable.NO_MOVE;
+		
+		for (int i=0, player=role; i<threatLineLength; i++, player=roleReversal(player)) {
+			int cell = threatLine[i];
+			winLine.add(new Move(cell / colSize, cell % colSize, player, gomoku.getStep() + i));
+		}
+		return threatLine[0];
+	}
+	
+	/*
+	 * Deepen the threat search one attacker move at a time, so the shortest win is found first
+	 */
+	private boolean threatDeepening(int role, int maxDepth, boolean vct) {
+		for (int depth=1; depth<=maxDepth && !threatAborted; depth++)
+			if (threatAttack(role, 0, depth, vct))
+				return true;
+		return false;
+	}
+	
+	/*
+	 * The attacker's turn of a threat sequence, true if role wins by making fours, or fours and threes when vct
+	 * is set, within depth more moves. Only the attacker's threats and forced blocks are searched.
+	 */
+	private boolean threatAttack(int role, int ply, int depth, boolean vct) {
+		if (++threatNodes > threatNodeLimit || (threatNodes & (CLOCK_CHECK_NODES-1)) == 0 && System.nanoTime() - threatDeadline >= 0)
+			threatAborted = true;
+		if (threatAborted)
+			return false;
+		int[] myScore = role == Gomoku.PLAYER1 ? p1Score : p2Score;
+		long[][] myThreats = threats[role];
+		long[][] opThreats = threats[roleReversal(role)];
+		
+		int five = firstCell(myThreats[C_FIVE], 0);
+		if (five >= 0) {
+			threatLine[ply] = five;
+			threatLineLength = ply + 1;
+			return true;
+		}
+		if (depth == 0)
+			return false;
+		
+		//A four of the defender must be blocked first, more than one can't be
+		int[] candidates = threatMoves[ply];
+		int count = 0;
+		int opFive = firstCell(opThreats[C_FIVE], 0);
+		if (opFive >= 0) {
+			if (firstCell(opThreats[C_FIVE], opFive+1) >= 0)
+				return false;
+			candidates[count++] = opFive;
+		} else if (!vct) {
+			count = collectFours(myThreats, null, candidates);
+		} else {
+			//Broken threes score a little below THREE, so the three making moves are looked up by score
+			for (int w=0; w<frontier.length; w++)
+				for (long bits = frontier[w] & board.emptyWord(w); bits != 0; bits &= bits - 1) {
+					int cell = (w << 6) + Long.numberOfTrailingZeros(bits);
+					if (myScore[cell] >= Score.THREE.val() - Score.ONE.val())
+						candidates[count++] = cell;
+				}
+		}
+		
+		for (int i=0; i<count; i++) {
+			int cell = candidates[i];
+			doMove(cell, role);
+			threatLine[ply] = cell;
+			boolean won = threatDefend(role, ply+1, depth-1, vct);
+			retreat(cell, role);
+			if (won) return true;
+			if (threatAborted) return false;
+		}
+		return false;
+	}
+	
+	/*
+	 * The defender's turn of a threat sequence, true if every defence against the attacker's last move loses.
+	 * A four has a single defence; an open three is defended on the cells the attacker could make a four on,
+	 * or by a four of the defender.
+	 */
+	private boolean threatDefend(int attacker, int ply, int depth, boolean vct) {
+		int defender = roleReversal(attacker);
+		int[] attackScore = attacker == Gomoku.PLAYER1 ? p1Score : p2Score;
+		long[][] attackThreats = threats[attacker];
+		long[][] defendThreats = threats[defender];
+		if (!isEmpty(defendThreats[C_FIVE]))
+			return false;
+		
+		int[] candidates = threatMoves[ply];
+		int count = 0;
+		int five = firstCell(attackThreats[C_FIVE], 0);
+		if (five >= 0 && firstCell(attackThreats[C_FIVE], five+1) >= 0) { //a double four can't be blocked
+			threatLineLength = ply;
+			return true;
+		}
+		if (five >= 0) {
+			candidates[count++] = five;
+		} else {
+			//Without a four the move must have made an open three, or it's no threat at all
+			if (!vct || !hasOpenFourCell(attackThreats[C_FOUR_THREE], attackScore))
+				return false;
+			count = collectFours(attackThreats, defendThreats, candidates);
+		}
+		
+		for (int i=0; i<count; i++) {
+			int cell = candidates[i];
+			doMove(cell, defender);
+			threatLine[ply] = cell;
+			boolean won = threatAttack(attacker, ply+1, depth, vct);
+			retreat(cell, defender);
+			if (!won) return false;
+		}
+		return true;
+	}
+	
+	/*
+	 * Collect the cells making a four, those scoring at least HALF_OPEN_FOUR for either player, in row-major
+	 * order. The count is returned.
+	 */
+	private static int collectFours(long[][] threats1, long[][] threats2, int[] cells) {
+		int count = 0;
+		for (int w=0; w<threats1[C_FIVE].length; w++) {
+			long bits = 0;
+			for (int c=C_FIVE; c<=C_HALF_OPEN_FOUR; c++)
+				bits |= threats1[c][w] | (threats2 == null ? 0 : threats2[c][w]);
+			for (; bits != 0; bits &= bits - 1)
+				cells[count++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+		}
+		return count;
+	}
+	
+	/*
+	 * Check if a cell makes an open four, those score FOUR and are found among the FOUR_THREE class
+	 */
+	private static boolean hasOpenFourCell(long[] fourThree, int[] score) {
+		for (int w=0; w<fourThree.length; w++)
+			for (long bits = fourThree[w]; bits != 0; bits &= bits - 1)
+				if (score[(w << 6) + Long.numberOfTrailingZeros(bits)] >= Score.FOUR.val())
+					return true;
+		return false;
+	}
+	
+	/*
+	 * Count the nodes of the helpers, only read it while they are not searching
+	 */
+	private long helperNodes() {
+		long count = 0;
+		if (helpers != null)
+			for (AI helper : helpers)
+				count += helper.nodes;
+		return count;
+	}
+	
+	/*
+	 * Stop the helper searches and wait for them to leave the shared table
+	 */
+	private void stopHelpers(List<Future<?>> helping) {
+		if (helpers == null) 
+			return;
+		for (AI helper : helpers)
+			helper.stopped = true;
+		try {
+			for (Future<?> future : helping)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Helper search failed", e.getCause());
+		}
+	}
+	
+	/*
+	 * Start pondering the position after this AI's move aiCell, on a copy of the game the ponderer owns
+	 */
+	private synchronized void startPondering(int aiCell) {
+		Gomoku copy = gomoku.fork();
+		copy.makeAMove(aiCell / colSize, aiCell % colSize);
+		ponderer = new AI(copy, table);
+		ponderer.copySettings(this);
+		pondering = ponderPool.submit(ponderer::ponder);
+	}
+	
+	/*
+	 * Search the positions after the opponent's best replies round by round, one ply deeper each round, until
+	 * stopped. The TT move of the position is the predicted reply and goes first.
+	 */
+	private void ponder() {
+		int opponent = gomoku.getCurrent();
+		int predicted = TranspositionTable.move(table.probe(hash));
+		int count = generateMoves(opponent, 0);
+		if (predicted != TranspositionTable.NO_MOVE)
+			moveToFront(0, count, predicted);
+		int[] replies = Arrays.copyOf(moves[0], Math.min(count, PONDER_REPLIES));
+		ponderHashes = new long[replies.length];
+		ponderDepths = new int[replies.length];
+		ponderMoves = new int[replies.length];
+		ponderScores = new int[replies.length];
+		for (int i=0; i<replies.length; i++) {
+			doMove(replies[i], opponent);
+			ponderHashes[i] = hash;
+			retreat(replies[i], opponent);
+		}
+		ponderCount = replies.length;
+		
+		resetOrdering();
+		timed = false;
+		aborted = false;
+		clockCountdown = CLOCK_CHECK_NODES;
+		for (rootDepth = 1; rootDepth <= MAX_DEPTH && !aborted; rootDepth++) {
+			boolean searched = false;
+			for (int i=0; i<replies.length && !aborted; i++) {
+				//No need to look deeper once the game result is settled
+				if (ponderDepths[i] > 0 && (ponderScores[i] <= MIN+1 || ponderScores[i] >= MAX-1))
+					continue;
+				doMove(replies[i], opponent);
+				pvMove = ponderDepths[i] > 0 ? ponderMoves[i] : TranspositionTable.NO_MOVE;
+				int score = negamax(replies[i], opponent, rootDepth, 0, MIN, MAX);
+				if (!aborted) {
+					ponderDepths[i] = rootDepth;
+					ponderMoves[i] = rootMove;
+					ponderScores[i] = score;
+					searched = true;
+				}
+				retreat(replies[i], opponent);
+			}
+			if (!searched) break;
+		}
+	}
+	
+	/*
+	 * Search iteratively on this helper's own copy of the game until the main search stops it
+	 */
+	private void helpSearch(int lastCell, int lastRole, int minDepth, int maxDepth) {
+		initScore();
+		resetOrdering();
+		timed = false;
+		aborted = false;
+		clockCountdown = CLOCK_CHECK_NODES;
+		pvMove = TranspositionTable.NO_MOVE;
+		for (rootDepth = minDepth; rootDepth <= maxDepth && !aborted; rootDepth++) {
+			negamax(lastCell, lastRole, rootDepth, 0, MIN, MAX);
+			if (!aborted) pvMove = rootMove;
+		}
+	}
+	
+	/*
+	 * Order the generated moves of a ply by what earlier cut-offs taught: the killers of the ply first, then
+	 * the rest by history. Moves with equal history keep the order generateMoves() gave them.
+	 */
+	private void orderMoves(int role, int ply, int count) {
+		int[] cells = moves[ply];
+		int[] scores = moveScores[ply];
+		int[] learnt = history[role];
+		for (int i=1; i<count; i++) {
+			int cell = cells[i], score = scores[i];
+			int j = i;
+			for (; j > 0 && learnt[cells[j-1]] < learnt[cell]; j--) {
+				cells[j] = cells[j-1];
+				scores[j] = scores[j-1];
+			}
+			cells[j] = cell;
+			scores[j] = score;
+		}
+		for (int k=KILLERS-1; k>=0; k--)
+			if (killers[ply][k] != TranspositionTable.NO_MOVE)
+				moveToFront(ply, count, killers[ply][k]);
+	}
+	
+	/*
+	 * Learn from a cut-off: the move becomes the first killer of the ply and gains history
+	 */
+	private void rememberCutoff(int role, int ply, int depth, int cell) {
+		int[] slots = killers[ply];
+		if (slots[0] != cell) {
+			System.arraycopy(slots, 0, slots, 1, KILLERS - 1);
+			slots[0] = cell;
+		}
+		history[role][cell] += depth * depth;
+	}
+	
+	/*
+	 * Forget the killers of the last search and age the history, so recent cut-offs weigh more
+	 */
+	private void resetOrdering() {
+		for (int[] slots : killers)
+			Arrays.fill(slots, TranspositionTable.NO_MOVE);
+		for (int[] learnt : history)
+			for (int i=0; i<learnt.length; i++)
+				learnt[i] >>= 1;
+	}
+	
+	/*
+	 * Move the packed move to the head of the ply's moves, it's searched first for an early cut-off
+	 */
+	private void moveToFront(int ply, int count, int move) {
+		int[] cells = moves[ply];
+		int[] scores = moveScores[ply];
+		for (int i=1; i<count; i++) {
+			if (cells[i] == move) {
+				int score = scores[i];
+				System.arraycopy(cells, 0, cells, 1, i);
+				System.arraycopy(scores, 0, scores, 1, i);
+				cells[0] = move;
+				scores[0] = score;
+				return;
 			}
 		}
-		return bestMove;
 	}
 	
 	/*
 	 * Update the board and score after make a move
 	 */
-	private void doMove(Node node) {
-		int row = node.row;
-		int col = node.col;
-		if (board[row][col] == roleReversal(node.role)) 
+	void doMove(int cell, int role) {
+		int row = cell / colSize;
+		int col = cell % colSize;
+		int stone = board.get(row, col);
+		if (stone == roleReversal(role))
 			throw new RuntimeException("Wrong move, board[" + row + "][" + col + "] is not vacant.");
 		
-		board[row][col] = node.role;
-		updateScore(node);
+		board.set(row, col, role);
+		if (stone == Gomoku.EMPTY) {
+			hash ^= zobrist.key(role, row, col);
+			updateFrontier(row, col, 1);
+		}
+		updateScore(row, col);
 	}
 	
 	/*
 	 * Update the board and score after make a retreat
 	 */
-	private void retreat(Node node) {
-		int row = node.row;
-		int col = node.col;
-		if (board[row][col] != node.role) {
-			throw new RuntimeException("Wrong retreat, board[" + row + "][" + col + "] is not " + node.role);
+	void retreat(int cell, int role) {
+		int row = cell / colSize;
+		int col = cell % colSize;
+		if (board.get(row, col) != role) {
+			throw new RuntimeException("Wrong retreat, board[" + row + "][" + col + "] is not " + role);
 		}
-		board[row][col] = Gomoku.EMPTY;
-		updateScore(node);
+		board.clear(row, col);
+		hash ^= zobrist.key(role, row, col);
+		updateFrontier(row, col, -1);
+		updateScore(row, col);
 	}
 	
-	private void updateScore(Node node) {
-		int row = node.row;
-		int col = node.col;
-		
+	/*
+	 * Count a stone placed (delta 1) or removed (delta -1) for the cells sharing a line with it within
+	 * winLength-1, the same cells updateScore() rescores
+	 */
+	private void updateFrontier(int row, int col, int delta) {
+		int reach = winLength - 1;
+		for (int d=-reach; d<=reach; d++) {
+			nearBy(row, col + d, delta);
+			if (d == 0) continue;
+			nearBy(row + d, col, delta);
+			nearBy(row + d, col - d, delta);
+			nearBy(row + d, col + d, delta);
+		}
+	}
+	
+	private void nearBy(int row, int col, int delta) {
+		if (row < 0 || row >= rowSize || col < 0 || col >= colSize) return;
+		int cell = row * colSize + col;
+		nearStones[cell] += delta;
+		if (nearStones[cell] == 0)
+			frontier[cell >>> 6] &= ~(1L << cell);
+		else
+			frontier[cell >>> 6] |= 1L << cell;
+	}
+	
+	private void updateScore(int row, int col) {
 		//Horizontal direction "-"
-		for (int j = col-(winLength-1); j <= col+(winLength-1); j++) 
+		for (int j = col-(winLength-1); j <= col+(winLength-1); j++)
 			setScore(row, j);
-
+		
 		//Vertical direction "|"
 		for (int i = row-(winLength-1); i <= row+(winLength-1); i++) {
 			if (i == row) continue;
@@ -189,106 +1442,56 @@ public class AI {
 	
 	private boolean setScore(int row, int col) {
 		if (!gomoku.indexLegalCheck(row, col)) return false;
-		p1Score[row][col] = countAllWayScore(Gomoku.PLAYER1, row, col);
-		p2Score[row][col] = countAllWayScore(Gomoku.PLAYER2, row, col);
+		int cell = row * colSize + col;
+		int p1 = countAllWayScore(Gomoku.PLAYER1, row, col);
+		int p2 = countAllWayScore(Gomoku.PLAYER2, row, col);
+		scoreTotal += p2 - p2Score[cell] - (p1 - p1Score[cell]);
+		reclassify(threats[Gomoku.PLAYER1], cell, p1Score[cell], p1);
+		reclassify(threats[Gomoku.PLAYER2], cell, p2Score[cell], p2);
+		p1Score[cell] = p1;
+		p2Score[cell] = p2;
 		return true;
 	}
 	
-	private int countAllWayScore(int role, int row, int col) {
-		int score = 0;
-		
-		if (board[row][col] != Gomoku.EMPTY) return score;
-		
-		//Count horizontal direction "-"
-		int score1 = countLinearScore(countOneWay(role, row, col, 0, -1), countOneWay(role, row, col, 0, 1));
-		score = scoreplus(score, score1);
-		
-		//Count vertical direction "|"
-		int score2 = countLinearScore(countOneWay(role, row, col, -1, 0), countOneWay(role, row, col, 1, 0));
-		score = scoreplus(score, score2);
-		
-		//Count slash direction "/"
-		int score3 = countLinearScore(countOneWay(role, row, col, -1, 1), countOneWay(role, row, col, 1, -1));
-		score = scoreplus(score, score3);
-		
-		//Count backslash direction "\"
-		int score4 = countLinearScore(countOneWay(role, row, col, -1, -1), countOneWay(role, row, col, 1, 1));
-		score = scoreplus(score, score4);
-		
-		return score;
+	/*
+	 * Move the cell to the threat class of its new score
+	 */
+	private static void reclassify(long[][] classes, int cell, int oldScore, int newScore) {
+		int oldClass = classOf(oldScore);
+		int newClass = classOf(newScore);
+		if (oldClass == newClass) return;
+		if (oldClass < CLASSES) classes[oldClass][cell >>> 6] &= ~(1L << cell);
+		if (newClass < CLASSES) classes[newClass][cell >>> 6] |= 1L << cell;
 	}
 	
-	private OneWayCount countOneWay(int player, int row, int col, int rowInc, int colInc) {
-		OneWayCount owc = new OneWayCount();
-		int opponent = roleReversal(player);
-		
-		for (int nextRow, nextCol, i=1; i < winLength; i++) {
-			nextRow = row + i * rowInc;
-			nextCol = col + i * colInc;
-			if (!gomoku.indexLegalCheck(nextRow, nextCol) || board[nextRow][nextCol] == opponent) {
-				owc.block++;
-				break;
-			} else if (board[nextRow][nextCol] == Gomoku.EMPTY) {
-				if (owc.spacePosition == 0 && 
-						gomoku.indexLegalCheck(nextRow + rowInc, nextCol + colInc) && 
-						board[nextRow + rowInc][nextCol + colInc] == player) {
-					owc.spacePosition = owc.count;
-					continue;
-				} else {
-					break;
-				}
-			} else { //board[nextRow][nextCol] == player
-				if (owc.spacePosition == 0) {
-					owc.count++;
-				} else {
-					owc.countAfterSpace++;
-				}
-			}
-		}
-			
-		return owc;
+	static int classOf(int score) {
+		int c = 0;
+		while (c < CLASSES && score < CLASS_THRESHOLDS[c])
+			c++;
+		return c;
 	}
+	
+	/*
+	 * Sum up the score of the four lines cross the position, each line score is looked up by its pattern
+	 */
+	private int countAllWayScore(int role, int row, int col) {
+		int score = 0;
 		
-	private int countLinearScore(OneWayCount owcFront, OneWayCount owcBack) {
-		OneWayCount owc = new OneWayCount();
-		owc.count = owcFront.count + owcBack.count - 1;
-		owc.block = owcFront.block + owcBack.block;
+		if (board.get(row, col) != Gomoku.EMPTY) return score;
 		
-		if (owcFront.countAfterSpace >= owcBack.countAfterSpace) {
-			owc.spacePosition = owcFront.countAfterSpace;
-			owc.countAfterSpace = owcFront.countAfterSpace;
-		} else {
-			owc.spacePosition = owc.count;
-			owc.countAfterSpace= owcBack.countAfterSpace;
+		int opponent = roleReversal(role);
+		for (int d=0; d<BitBoard.DIRECTIONS; d++) {
+			long mineBack = board.ray(role, d, false, row, col);
+			long blockedBack = board.ray(opponent, d, false, row, col) | board.edge(d, false, row, col);
+			long mineFront = board.ray(role, d, true, row, col);
+			long blockedFront = board.ray(opponent, d, true, row, col) | board.edge(d, true, row, col);
+			score = scoreplus(score, patterns.score(mineBack, blockedBack, mineFront, blockedFront));
 		}
 		
-		return countToScore(owc);
-	}
-	
-	private int countToScore(OneWayCount owc) {
-		if (owc.count >= winLength) return Score.FIVE.val();
-		if (owc.count >= winLength - 1 && owc.block == 0) return Score.FOUR.val();
-		int count = owc.count + owc.countAfterSpace;
-		if (count >= winLength - 1 && owc.block != 2) return Score.HALF_OPEN_FOUR.val();
-		
-		if (owc.block == 0) {
-			switch (count) {
-			case 3: return owc.spacePosition == 0 ? Score.THREE.val() : Score.THREE.val() - Score.ONE.val();
-			case 2: return owc.spacePosition == 0 ? Score.TWO.val() : Score.TWO.val() - Score.ONE.val();
-			case 1: return Score.ONE.val();
-			}
-		} else if (owc.block == 1) {
-			switch (count) {
-			case 3: return owc.spacePosition == 0 ? Score.HALF_OPEN_THREE.val() : Score.HALF_OPEN_THREE.val() - Score.ONE.val();
-			case 2: return owc.spacePosition == 0 ? Score.HALF_OPEN_TWO.val() : Score.HALF_OPEN_TWO.val() - Score.ONE.val();
-			case 1: return Score.HALF_OPEN_ONE.val();
-			}
-		}
-		//owc.block > 1 && count < winLength
-		return Score.BLOCKED.val();
+		return score;
 	}
 	
-	private int scoreplus(int score1, int score2) {
+	static int scoreplus(int score1, int score2) {
 		int score = score1 + score2;
 		int min = Math.min(score1, score2);
 		int max = Math.max(score1, score2);
@@ -302,22 +1505,17 @@ public class AI {
 	}
 	
 	/*
-	 * Generate some better moves by heuristic searching for evaluation
+	 * Generate some better moves by heuristic searching for evaluation. The moves are left in moves[ply] and
+	 * moveScores[ply] best first, the count of them is returned.
 	 */
-	private List<Node> generateMoves(int role) {
-		List<Node> nodes = new ArrayList<>();
-		ArrayList<Node> opFive = new ArrayList<>();
-		ArrayList<Node> myFourThree = new ArrayList<>();
-		ArrayList<Node> opFourThree = new ArrayList<>();
-		ArrayList<Node> myDoubleThree = new ArrayList<>();
-		ArrayList<Node> opDoubleThree = new ArrayList<>();
-		ArrayList<Node> myHALF_OPEN_FOUR = new ArrayList<>();
-		ArrayList<Node> opHALF_OPEN_FOUR = new ArrayList<>();
-		ArrayList<Node> myThree = new ArrayList<>();
-		ArrayList<Node> opThree = new ArrayList<>();
-		ArrayList<Node> myTwo = new ArrayList<>();
-		ArrayList<Node> theRest = new ArrayList<>();
-		int[][] myScore, opScore;
+	int generateMoves(int role, int ply) {
+		if (moves[ply] == null) {
+			moveKeys[ply] = new long[rowSize * colSize];
+			moves[ply] = new int[rowSize * colSize];
+			moveScores[ply] = new int[rowSize * colSize];
+		}
+		long[] keys = moveKeys[ply];
+		int[] myScore, opScore;
 		if (role == Gomoku.PLAYER1) {
 			myScore = p1Score;
 			opScore = p2Score;
@@ -326,75 +1524,179 @@ public class AI {
 			opScore = p1Score;
 		}
 		
-		for (int i=0; i<rowSize; i++) 
-			for (int j=0; j<colSize; j++) 
-				if (board[i][j] == Gomoku.EMPTY) {
-					//Won when I have five
-					if (myScore[i][j] >= Score.FIVE.val()) {
-						nodes.add(new Node(i, j, role));
-						return nodes;
-					} 
-					else if (opScore[i][j] >= Score.FIVE.val()) opFive.add(new Node(i, j, role, opScore[i][j]));
-					else if (myScore[i][j] >= Score.HALF_FOUR_AND_THREE.val()) myFourThree.add(new Node(i, j, role, myScore[i][j]));
-					else if (opScore[i][j] >= Score.HALF_FOUR_AND_THREE.val()) opFourThree.add(new Node(i, j, role, opScore[i][j]));
-					else if (myScore[i][j] >= Score.DOUBLE_THREE.val()) myDoubleThree.add(new Node(i, j, role, myScore[i][j]));
-					else if (opScore[i][j] >= Score.DOUBLE_THREE.val()) opDoubleThree.add(new Node(i, j, role, opScore[i][j]));
-					else if (myScore[i][j] >= Score.HALF_OPEN_FOUR.val()) myHALF_OPEN_FOUR.add(new Node(i, j, role, myScore[i][j]));
-					else if (opScore[i][j] >= Score.HALF_OPEN_FOUR.val()) opHALF_OPEN_FOUR.add(new Node(i, j, role, opScore[i][j]));
-					else if (myScore[i][j] >= Score.THREE.val()) myThree.add(new Node(i, j, role, myScore[i][j]));
-					else if (opScore[i][j] >= Score.THREE.val()) opThree.add(new Node(i, j, role, opScore[i][j]));
-					else if (myScore[i][j] >= Score.TWO.val()) myTwo.add(new Node(i, j, role, myScore[i][j]));
-					else theRest.add(new Node(i, j, role, opScore[i][j]));
-				}
+		long[][] myThreats = threats[role];
+		long[][] opThreats = threats[roleReversal(role)];
+		
+		//Won when I have five
+		int five = firstCell(myThreats[C_FIVE], 0);
+		if (five >= 0) {
+			moves[ply][0] = five;
+			moveScores[ply][0] = myScore[five];
+			return 1;
+		}
 		
-		if (opFive.size() > 0) {
-			addNodesTo(nodes, opFive);
-		} else if (myFourThree.size() > 0) {
-			addNodesTo(nodes, myFourThree);
-		} else if (opFourThree.size() > 0) {
-			addNodesTo(nodes, opFourThree);
-			addNodesTo(nodes, myHALF_OPEN_FOUR);
-		} else if (myDoubleThree.size() > 0) {
-			addNodesTo(nodes, myDoubleThree);
-			addNodesTo(nodes, myHALF_OPEN_FOUR);
-			addNodesTo(nodes, opHALF_OPEN_FOUR);
-		} else if (opDoubleThree.size() > 0) {
-			addNodesTo(nodes, opDoubleThree);
-			addNodesTo(nodes, myHALF_OPEN_FOUR);
-			addNodesTo(nodes, opHALF_OPEN_FOUR);
-			addNodesTo(nodes, myThree);
+		//Pick the tiers worth searching. With the tiers above it empty, a tier is empty exactly when the threat
+		//class it's made of is.
+		int tiers;
+		int limit = Integer.MAX_VALUE;
+		if (!isEmpty(opThreats[C_FIVE])) {
+			tiers = 1 << OP_FIVE;
+		} else if (!isEmpty(myThreats[C_FOUR_THREE])) {
+			tiers = 1 << MY_FOUR_THREE;
+		} else if (!isEmpty(opThreats[C_FOUR_THREE])) {
+			tiers = 1 << OP_FOUR_THREE | 1 << MY_HALF_OPEN_FOUR;
+		} else if (!isEmpty(myThreats[C_DOUBLE_THREE])) {
+			tiers = 1 << MY_DOUBLE_THREE | 1 << MY_HALF_OPEN_FOUR | 1 << OP_HALF_OPEN_FOUR;
+		} else if (!isEmpty(opThreats[C_DOUBLE_THREE])) {
+			tiers = 1 << OP_DOUBLE_THREE | 1 << MY_HALF_OPEN_FOUR | 1 << OP_HALF_OPEN_FOUR | 1 << MY_THREE;
 		} else {
-			addNodesTo(nodes, myHALF_OPEN_FOUR);
-			addNodesTo(nodes, opHALF_OPEN_FOUR);
-			addNodesTo(nodes, myThree);
-			addNodesTo(nodes, opThree);
-			addNodesTo(nodes, myTwo);
-			addNodesTo(nodes, theRest);
-			if (nodes.size() > CHILDREN_LIMIT) nodes = nodes.subList(0, CHILDREN_LIMIT);
-		} 
-
-		return nodes;
+			tiers = 1 << MY_HALF_OPEN_FOUR | 1 << OP_HALF_OPEN_FOUR | 1 << MY_THREE | 1 << OP_THREE
+					| 1 << MY_TWO | 1 << THE_REST;
+			limit = childrenLimit;
+		}
+		
+		//Collect the candidates tier by tier from the class each tier is made of, THE_REST from the frontier.
+		//Only the best tiers are needed to fill a limit.
+		int count = 0;
+		for (int tier=0; tier<TIERS && count<limit; tier++) {
+			if ((tiers >>> tier & 1) == 0) continue;
+			boolean mine = tier % 2 == 1;
+			long[] cells = tier == THE_REST ? frontier : (mine ? myThreats : opThreats)[(tier + 1) / 2];
+			for (int w=0; w<cells.length; w++)
+				for (long bits = cells[w] & board.emptyWord(w); bits != 0; bits &= bits - 1) {
+					int cell = (w << 6) + Long.numberOfTrailingZeros(bits);
+					if (tierOf(myScore[cell], opScore[cell]) == tier)
+						keys[count++] = packMoveKey(tier, mine ? myScore[cell] : opScore[cell], cell);
+				}
+		}
+		
+		//Selection sort the best ones to the front: by tier, then by higher score, then in row-major order
+		limit = Math.min(limit, count);
+		for (int i=0; i<limit; i++) {
+			int min = i;
+			for (int j=i+1; j<count; j++)
+				if (keys[j] < keys[min]) min = j;
+			long key = keys[min];
+			keys[min] = keys[i];
+			keys[i] = key;
+			moves[ply][i] = (int) (key & 0xFFFFF);
+			moveScores[ply][i] = Integer.MAX_VALUE - (int) (key >>> 20 & Integer.MAX_VALUE);
+		}
+		return limit;
+	}
+	
+	/*
+	 * The tier of an empty cell by the scores of the player to move and the opponent, when neither has five
+	 */
+	static int tierOf(int my, int op) {
+		if (op >= Score.FIVE.val()) return OP_FIVE;
+		if (my >= Score.HALF_FOUR_AND_THREE.val()) return MY_FOUR_THREE;
+		if (op >= Score.HALF_FOUR_AND_THREE.val()) return OP_FOUR_THREE;
+		if (my >= Score.DOUBLE_THREE.val()) return MY_DOUBLE_THREE;
+		if (op >= Score.DOUBLE_THREE.val()) return OP_DOUBLE_THREE;
+		if (my >= Score.HALF_OPEN_FOUR.val()) return MY_HALF_OPEN_FOUR;
+		if (op >= Score.HALF_OPEN_FOUR.val()) return OP_HALF_OPEN_FOUR;
+		if (my >= Score.THREE.val()) return MY_THREE;
+		if (op >= Score.THREE.val()) return OP_THREE;
+		if (my >= Score.TWO.val()) return MY_TWO;
+		return THE_REST;
 	}
 	
-	private void addNodesTo(List<Node> targetList, List<Node> nodes) {
-		if (nodes.size() > 0) {
-			Collections.sort(nodes, Collections.reverseOrder());
-			targetList.addAll(nodes);
+	/*
+	 * Find the first cell of a bitset from the given one, -1 if there's none
+	 */
+	private static int firstCell(long[] cells, int from) {
+		for (int w=from >>> 6; w<cells.length; w++) {
+			long bits = cells[w];
+			if (w == from >>> 6)
+				bits &= -1L << (from & 63);
+			if (bits != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(bits);
 		}
+		return -1;
+	}
+	
+	private static boolean isEmpty(long[] cells) {
+		for (long bits : cells)
+			if (bits != 0) return false;
+		return true;
 	}
 	
 	/*
-	 * Evaluate a score for the whole board. Positive is good for player2, negative is good for player1
+	 * Pack a candidate move, so sorting the keys ascending orders by tier, then by higher score, then by position
 	 */
-	private int evaluate() {
-		int score = 0;	
-		for (int i=0; i<rowSize; i++) 
-			for (int j=0; j<colSize; j++) 
-				if (board[i][j] == Gomoku.EMPTY)
-					score += p2Score[i][j] - p1Score[i][j];		
+	private static long packMoveKey(int tier, int score, int cell) {
+		return (long) tier << 59 | (long) (Integer.MAX_VALUE - score) << 20 | cell;
+	}
+	
+	/*
+	 * Evaluate a score for the whole board. Positive is good for player2, negative is good for player1. Occupied
+	 * cells score 0, so the running total of setScore() is the sum over the empty cells.
+	 */
+	int evaluate() {
+		if (VERIFY_EVAL && scoreTotal != evaluateByScan())
+			throw new IllegalStateException("Incremental evaluation " + scoreTotal + " differs from the scan " + evaluateByScan());
+		return scoreTotal;
+	}
+	
+	/*
+	 * Evaluate the board by summing the scores of every empty cell
+	 */
+	private int evaluateByScan() {
+		int score = 0;
+		for (int w=0; w<board.words(); w++)
+			for (long empty = board.emptyWord(w); empty != 0; empty &= empty - 1) {
+				int cell = (w << 6) + Long.numberOfTrailingZeros(empty);
+				score += p2Score[cell] - p1Score[cell];
+			}
 		return score;
 	}
 	
+	/**
+	 * Get the transposition table, its counters tell how much search it saved
+	 * 
+	 * @return the transposition table of this AI
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+	
+	/**
+	 * Get how many nodes this AI has searched over all its moves, helper threads not included
+	 * 
+	 * @return node count
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Add a listener receiving the statistics of every search. Without listeners the statistics are never
+	 * collected into SearchStats, the search only bumps a few counters.
+	 * 
+	 * @param listener the listener
+	 */
+	public void addSearchListener(SearchListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Remove a listener added by addSearchListener()
+	 * 
+	 * @param listener the listener
+	 */
+	public void removeSearchListener(SearchListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/*
+	 * Map a cell packed as row * colSize + col by a Symmetry of the square board
+	 */
+	private int mapCell(int symmetry, int cell) {
+		int row = cell / colSize, col = cell % colSize;
+		return Symmetry.row(symmetry, rowSize, row, col) * colSize + Symmetry.col(symmetry, rowSize, row, col);
+	}
+	
 	/*
 	 * Return the next turn player
 	 */
@@ -410,26 +1712,31 @@ public class AI {
 		Move move = null;
 		int[] firstMove = {rowSize/2, colSize/2};
 		int[][] thirdMoves = {
-				{firstMove[0] - 2, firstMove[1]}, 
-				{firstMove[0] + 2, firstMove[1]}, 
-				{firstMove[0], firstMove[1] - 2}, 
+				{firstMove[0] - 2, firstMove[1]},
+				{firstMove[0] + 2, firstMove[1]},
+				{firstMove[0], firstMove[1] - 2},
 				{firstMove[0], firstMove[1] + 2}};
 		
 		if (step <= 1) {
 			move = new Move(firstMove[0], firstMove[1], gomoku.getCurrent(), gomoku.getStep());
 		} else if (step <= 2) {
-			Move lastMove = gomoku.getMoves().peek();
+			Move lastMove = gomoku.getLastMove();
 			int row = lastMove.getRow();
 			int col = lastMove.getCol();
 			row = rowSize - row > row ? row + 1 : row - 1;
 			col = colSize - col > col ? col + 1 : col - 1;
 			move = new Move(row, col, gomoku.getCurrent(), gomoku.getStep());
 		} else if (step <= 3) {
+			int[][] board = gomoku.getBoard();
 			for (int[] m : thirdMoves) {
-				if (!isInStarDirection(m[0], m[1], firstMove[0], firstMove[1]))
+				if (!isInStarDirection(m[0], m[1], firstMove[0], firstMove[1]) && board[m[0]][m[1]] == Gomoku.EMPTY)
+					return new Move(m[0], m[1], gomoku.getCurrent(), gomoku.getStep());
+			}
+			//The opponent may have taken a candidate, only two stones are down so one of the four is vacant
+			for (int[] m : thirdMoves) {
+				if (board[m[0]][m[1]] == Gomoku.EMPTY)
 					return new Move(m[0], m[1], gomoku.getCurrent(), gomoku.getStep());
 			}
-			return new Move(thirdMoves[0][0], thirdMoves[0][1], gomoku.getCurrent(), gomoku.getStep());
 		} else {
 			throw new RuntimeException("openingMove only support the initial 3 moves.");
 		}
@@ -448,80 +1755,13 @@ public class AI {
 		return false;
 	}
 	
-	private String printNode(Node node, int depth) {
+	private String printMove(int cell, int role, int score, int depth) {
 		String unitSpace = "   ";
 		String space = "";
-		for (int i=0; i<DEPTH-depth; i++)
+		for (int i=0; i<rootDepth-depth; i++)
 			space += unitSpace;
-		int step = gomoku.getStep() + DEPTH - depth;
-		return space + node + " Step=" + step;
-	}
-	
-	private class OneWayCount {
-		int count;
-		int countAfterSpace;
-		int block;
-		int spacePosition;
-		
-		public OneWayCount() {
-			count = 1;
-			countAfterSpace = 0;
-			block = 0;
-			spacePosition = 0;
-		}
-	}
-	
-	private class Node implements Comparable<Node> {
-		private int row;
-		private int col;
-		private int score;
-		private int role;
-		private List<Node> children;
-		private boolean isCut;
-		
-		public Node(int row, int col, int role) {
-			this.row = row;
-			this.col = col;
-			this.role = role;
-			this.score = 0;
-			this.children = new ArrayList<>();
-			this.isCut = false;
-		}
-		
-		public Node(int row, int col, int role, int score) {
-			this(row, col, role);
-			this.score = score;
-		}
-		
-		//Only for build the MAX and MIN nodes
-		public Node(int score) {
-			this(-1, -1, Gomoku.EMPTY);
-			this.score = score;
-		}
-
-		@Override
-		public int compareTo(Node other) {
-			return Integer.compare(this.score, other.score);
-		}
-
-		@Override
-		public String toString() {
-			String player;
-			switch (role) {
-				case Gomoku.EMPTY:
-					player = "Empty";
-					break;
-				case Gomoku.PLAYER1:
-					player = "Black";
-					break;
-				case Gomoku.PLAYER2:
-					player = "Red";
-					break;
-				default:
-					player = "Error: can't reconize " + role;
-			}
-			String cut = isCut ? "##_cut_##" : "";
-			return "Node[" + row + ", " + col + "]: score=" + score + ", role=" + player + " " + cut;
-		}
+		int step = gomoku.getStep() + rootDepth - depth;
+		String player = role == Gomoku.PLAYER1 ? "Black" : "Red";
+		return space + "Move[" + cell / colSize + ", " + cell % colSize + "]: score=" + score + ", role=" + player + " Step=" + step;
 	}
 }
@@ -0,0 +1,70 @@
+/**
+ * AIPool.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * AIs lent to games for the length of a search. An AI holds its score tables, move buffers and transposition
+ * table, some tens of KB, while the game it plays may sit idle for minutes between moves; with a pool a server
+ * keeps only a GameState per game and about as many AIs as it has threads searching. The AIs are kept by board
+ * size and win length, and all of them with the same transposition table size.
+ */
+public class AIPool {
+	private final int tableBits;
+	private final Map<Integer, Queue<AI>> idle = new ConcurrentHashMap<>();	//by boardSize * 256 + winLength
+	private int created;
+
+	/**
+	 * Constructor
+	 *
+	 * @param tableBits the transposition table of each AI holds 2^tableBits entries
+	 */
+	public AIPool(int tableBits) {
+		this.tableBits = tableBits;
+	}
+
+	/**
+	 * Search the next move of a game on a pooled AI, a new one if all of them are busy
+	 *
+	 * @param state		the game, not over
+	 * @param player	how the AI searches
+	 * @return the move of the player to move, not played on the state
+	 */
+	public Move move(GameState state, SelfPlay.Player player) {
+		Queue<AI> ais = idle.computeIfAbsent(state.getBoardSize() * 256 + state.getWinLength(),
+				key -> new ConcurrentLinkedQueue<>());
+		Gomoku gomoku = state.toGomoku(false, false);
+		AI ai = ais.poll();
+		if (ai == null) {
+			ai = new AI(gomoku, new TranspositionTable(tableBits, TranspositionTable.Replacement.DEPTH_PREFERRED));
+			synchronized (this) {
+				created++;
+			}
+		} else {
+			ai.setGame(gomoku);
+		}
+		player.configure(ai);
+		try {
+			return player.move(ai);
+		} finally {
+			ais.add(ai);
+		}
+	}
+
+	/**
+	 * Get how many AIs the pool has made, the most that searched at the same time
+	 *
+	 * @return AI count
+	 */
+	public synchronized int getCreated() {
+		return created;
+	}
+}
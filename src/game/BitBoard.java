@@ -0,0 +1,249 @@
+/**
+ * BitBoard.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * A board stored as bitsets. Each player owns a plain bitset of the cells in row-major order, plus one word per
+ * row, column and diagonal of the board, so the stones along a line through a position are read with a shift
+ * instead of walking the cells one by one. Lines longer than 64 cells are not supported.
+ */
+public class BitBoard {
+	public final static int HORIZONTAL = 0;		//direction "-"
+	public final static int VERTICAL = 1;		//direction "|"
+	public final static int SLASH = 2;			//direction "/"
+	public final static int BACKSLASH = 3;		//direction "\"
+	public final static int DIRECTIONS = 4;
+	public final static int MAX_SIZE = 64;		//the longest line a word holds
+
+	private final int rowSize;
+	private final int colSize;
+	private final long[][] bits;		//bits[player]: bit row * colSize + col is set if the player has a stone there
+	private final long[][] lines;		//lines[player][line]: the stones along a line, one bit per cell
+	private final long[] cellMask;		//all the cells on board
+	private final int[][] lineOf;		//lineOf[direction][cell]: the line through the cell
+	private final int[][] bitOf;		//bitOf[direction][cell]: the bit of the cell in its line
+	private final int[] lineLength;		//lineLength[line]: how many cells on the line
+	private int stones;
+
+	/**
+	 * Constructor, build an empty board
+	 *
+	 * @param rowSize how many rows on the board
+	 * @param colSize how many columns on the board
+	 */
+	public BitBoard(int rowSize, int colSize) {
+		if (rowSize > MAX_SIZE || colSize > MAX_SIZE)
+			throw new IllegalArgumentException("BitBoard supports up to " + MAX_SIZE + "x" + MAX_SIZE + ", got " + rowSize + "x" + colSize);
+		this.rowSize = rowSize;
+		this.colSize = colSize;
+		int cells = rowSize * colSize;
+		int words = (cells + 63) >>> 6;
+		this.bits = new long[3][words];
+		this.cellMask = new long[words];
+		for (int i=0; i<cells; i++)
+			cellMask[i >>> 6] |= 1L << i;
+
+		//rows, then columns, then "/" lines indexed by row+col, then "\" lines indexed by row-col
+		int diagonals = rowSize + colSize - 1;
+		this.lineLength = new int[rowSize + colSize + 2 * diagonals];
+		this.lines = new long[3][lineLength.length];
+		this.lineOf = new int[DIRECTIONS][cells];
+		this.bitOf = new int[DIRECTIONS][cells];
+		for (int i=0; i<rowSize; i++) {
+			for (int j=0; j<colSize; j++) {
+				int cell = i * colSize + j;
+				lineOf[HORIZONTAL][cell] = i;
+				bitOf[HORIZONTAL][cell] = j;
+				lineOf[VERTICAL][cell] = rowSize + j;
+				bitOf[VERTICAL][cell] = i;
+				lineOf[SLASH][cell] = rowSize + colSize + i + j;
+				bitOf[SLASH][cell] = i - Math.max(0, i + j - (colSize - 1));
+				lineOf[BACKSLASH][cell] = rowSize + colSize + diagonals + i - j + colSize - 1;
+				bitOf[BACKSLASH][cell] = Math.min(i, j);
+				for (int d=0; d<DIRECTIONS; d++)
+					lineLength[lineOf[d][cell]]++;
+			}
+		}
+	}
+
+	/**
+	 * Build a bitboard holding the same stones as a board array
+	 *
+	 * @param board the board to copy
+	 * @return a new bitboard
+	 */
+	public static BitBoard of(int[][] board) {
+		BitBoard bitBoard = new BitBoard(board.length, board[0].length);
+		for (int i=0; i<board.length; i++)
+			for (int j=0; j<board[i].length; j++)
+				if (board[i][j] != Gomoku.EMPTY)
+					bitBoard.set(i, j, board[i][j]);
+		return bitBoard;
+	}
+
+	/**
+	 * Make a deep copy of this board
+	 *
+	 * @return a new bitboard holding the same stones
+	 */
+	public BitBoard copy() {
+		BitBoard copy = new BitBoard(rowSize, colSize);
+		for (int player = Gomoku.PLAYER1; player <= Gomoku.PLAYER2; player++) {
+			System.arraycopy(bits[player], 0, copy.bits[player], 0, bits[player].length);
+			System.arraycopy(lines[player], 0, copy.lines[player], 0, lines[player].length);
+		}
+		copy.stones = stones;
+		return copy;
+	}
+
+	/**
+	 * Place a stone
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @param player PLAYER1 or PLAYER2
+	 */
+	public void set(int row, int col, int player) {
+		int cell = row * colSize + col;
+		if ((bits[player][cell >>> 6] & 1L << cell) != 0) return;
+		bits[player][cell >>> 6] |= 1L << cell;
+		for (int d=0; d<DIRECTIONS; d++)
+			lines[player][lineOf[d][cell]] |= 1L << bitOf[d][cell];
+		stones++;
+	}
+
+	/**
+	 * Remove a stone
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 */
+	public void clear(int row, int col) {
+		int player = get(row, col);
+		if (player == Gomoku.EMPTY) return;
+		int cell = row * colSize + col;
+		bits[player][cell >>> 6] &= ~(1L << cell);
+		for (int d=0; d<DIRECTIONS; d++)
+			lines[player][lineOf[d][cell]] &= ~(1L << bitOf[d][cell]);
+		stones--;
+	}
+
+	/**
+	 * Get the status of a position
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return EMPTY, PLAYER1 or PLAYER2
+	 */
+	public int get(int row, int col) {
+		int cell = row * colSize + col;
+		if ((bits[Gomoku.PLAYER1][cell >>> 6] & 1L << cell) != 0) return Gomoku.PLAYER1;
+		if ((bits[Gomoku.PLAYER2][cell >>> 6] & 1L << cell) != 0) return Gomoku.PLAYER2;
+		return Gomoku.EMPTY;
+	}
+
+	/**
+	 * Get a word of the vacant cells
+	 *
+	 * @param word index of the word, cell i is bit (i & 63) of word (i >>> 6)
+	 * @return bits set for the empty cells
+	 */
+	public long emptyWord(int word) {
+		return cellMask[word] & ~(bits[Gomoku.PLAYER1][word] | bits[Gomoku.PLAYER2][word]);
+	}
+
+	/**
+	 * Get how many words the plain bitsets take
+	 *
+	 * @return word count
+	 */
+	public int words() {
+		return cellMask.length;
+	}
+
+	/**
+	 * Get the stones of a player along a ray starting next to a position
+	 *
+	 * @param player	PLAYER1 or PLAYER2
+	 * @param direction	HORIZONTAL, VERTICAL, SLASH or BACKSLASH
+	 * @param forward	true for the ray toward the higher bits of the line
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @return bit k is set if the player has a stone k+1 cells away from the position
+	 */
+	public long ray(int player, int direction, boolean forward, int row, int col) {
+		int cell = row * colSize + col;
+		long line = lines[player][lineOf[direction][cell]];
+		int bit = bitOf[direction][cell];
+		if (forward)
+			return line >>> bit >>> 1;
+		return bit == 0 ? 0 : Long.reverse(line) >>> (64 - bit);
+	}
+
+	/**
+	 * Get the cells off the board along a ray starting next to a position
+	 *
+	 * @param direction	HORIZONTAL, VERTICAL, SLASH or BACKSLASH
+	 * @param forward	true for the ray toward the higher bits of the line
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @return bit k is set if the cell k+1 cells away from the position is outside the board
+	 */
+	public long edge(int direction, boolean forward, int row, int col) {
+		int cell = row * colSize + col;
+		int bit = bitOf[direction][cell];
+		int inside = forward ? lineLength[lineOf[direction][cell]] - 1 - bit : bit;
+		return inside >= 64 ? 0 : ~0L << inside;
+	}
+
+	/**
+	 * Winning condition check on all the lines cross this position, same rule as Gomoku.isWin()
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @param winLength how many stones in a row to win
+	 * @return true if match winning condition
+	 */
+	public boolean isWin(int row, int col, int winLength) {
+		int player = get(row, col);
+		if (player == Gomoku.EMPTY) return false;
+		for (int d=0; d<DIRECTIONS; d++) {
+			int front = Math.min(Long.numberOfTrailingZeros(~ray(player, d, true, row, col)), winLength - 1);
+			int back = Math.min(Long.numberOfTrailingZeros(~ray(player, d, false, row, col)), winLength - 1);
+			if (front + back == winLength - 1)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Get how many stones on board
+	 *
+	 * @return stone count
+	 */
+	public int getStones() {
+		return stones;
+	}
+
+	/**
+	 * Get how many rows on board
+	 *
+	 * @return row count
+	 */
+	public int getRowSize() {
+		return rowSize;
+	}
+
+	/**
+	 * Get how many columns on board
+	 *
+	 * @return column count
+	 */
+	public int getColSize() {
+		return colSize;
+	}
+}
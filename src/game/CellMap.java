@@ -0,0 +1,177 @@
+/**
+ * CellMap.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to long values on two primitive arrays, with open addressing and linear probing.
+ * Nothing is boxed, so a lookup costs a multiply and a few array reads. The key 0 and the value 0 are reserved:
+ * 0 marks an empty slot, and putting the value 0 removes the key. The table doubles once it's half full, a
+ * removal shifts the entries after it back so no tombstones are left.
+ *
+ * Board positions are packed into keys by key(row, col).
+ */
+public class CellMap {
+	public final static int BIAS = 1 << 28;	//added to a coordinate before packing, so every key is positive
+	private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+	private long[] keys;
+	private long[] values;
+	private int shift;		//64 - log2 of the table length
+	private int size;
+
+	/**
+	 * Constructor, build an empty map
+	 */
+	public CellMap() {
+		this(16);
+	}
+
+	/**
+	 * Constructor, build an empty map
+	 *
+	 * @param capacity how many entries the map holds before it grows
+	 */
+	public CellMap(int capacity) {
+		int length = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2;
+		this.keys = new long[length];
+		this.values = new long[length];
+		this.shift = 64 - Integer.numberOfTrailingZeros(length);
+	}
+
+	/**
+	 * Pack a position into a key
+	 *
+	 * @param row row of the position, its absolute value below BIAS
+	 * @param col column of the position, its absolute value below BIAS
+	 * @return a positive key
+	 */
+	public static long key(int row, int col) {
+		return (long) (row + BIAS) << 32 | (col + BIAS);
+	}
+
+	/**
+	 * Get the row of a key made by key(row, col)
+	 *
+	 * @param key the key
+	 * @return row of the position
+	 */
+	public static int row(long key) {
+		return (int) (key >>> 32) - BIAS;
+	}
+
+	/**
+	 * Get the column of a key made by key(row, col)
+	 *
+	 * @param key the key
+	 * @return column of the position
+	 */
+	public static int col(long key) {
+		return (int) key - BIAS;
+	}
+
+	/**
+	 * Look up a key
+	 *
+	 * @param key a key other than 0
+	 * @return the value, 0 if the key is not in the map
+	 */
+	public long get(long key) {
+		int mask = keys.length - 1;
+		for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+			long k = keys[slot];
+			if (k == key) return values[slot];
+			if (k == 0) return 0;
+		}
+	}
+
+	/**
+	 * Map a key to a value, or remove the key
+	 *
+	 * @param key	a key other than 0
+	 * @param value	the value, 0 to remove the key
+	 */
+	public void put(long key, long value) {
+		int mask = keys.length - 1;
+		int slot = slot(key);
+		while (keys[slot] != 0 && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		if (keys[slot] == key) {
+			if (value != 0)
+				values[slot] = value;
+			else
+				remove(slot);
+		} else if (value != 0) {
+			keys[slot] = key;
+			values[slot] = value;
+			if (++size * 2 > keys.length)
+				grow();
+		}
+	}
+
+	/*
+	 * Empty a slot, moving back the entries of the probe run after it that may live closer to their home slot
+	 */
+	private void remove(int slot) {
+		int mask = keys.length - 1;
+		size--;
+		for (int next = (slot + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+			int home = slot(keys[next]);
+			//The entry may fill the hole unless its home slot lies cyclically in (slot, next]
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = keys[next];
+				values[slot] = values[next];
+				slot = next;
+			}
+		}
+		keys[slot] = 0;
+		values[slot] = 0;
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new long[oldValues.length * 2];
+		shift--;
+		size = 0;
+		for (int i=0; i<oldKeys.length; i++)
+			if (oldKeys[i] != 0)
+				put(oldKeys[i], oldValues[i]);
+	}
+
+	private int slot(long key) {
+		return (int) ((key * MULTIPLIER) >>> shift);
+	}
+
+	/**
+	 * Remove every key, the table keeps its length
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, 0);
+		size = 0;
+	}
+
+	/**
+	 * Get how many keys are in the map
+	 *
+	 * @return key count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get how many slots the table has, it takes 16 bytes a slot
+	 *
+	 * @return table length
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ * GameRecord.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * The record of a game: the board, the win length, the result and the moves, each move packed as
+ * row * boardSize + col. Records are written to files by GameRecordWriter, 1 byte per move on boards up to 16x16
+ * and 2 bytes up to 256x256, and read back by GameRecordReader. The text notation of a record is one line:
+ *
+ * <pre>
+ * size=15 win=5 result=BLACK 7:7 8:8 6:6 ...
+ * </pre>
+ *
+ * with the result PLAYING, BLACK, WHITE or DRAW and the moves as row:col, black first.
+ */
+public class GameRecord {
+	public final static int MAX_BOARD_SIZE = 4096;	//the biggest board a record holds, a move fits in 3 bytes
+	private static final String[] RESULTS = {"PLAYING", "BLACK", "WHITE", "DRAW"};	//by Gomoku status
+	private final int boardSize;
+	private final int winLength;
+	private final int result;
+	private final int[] cells;
+
+	/**
+	 * Constructor
+	 *
+	 * @param boardSize	how many rows or columns on the board
+	 * @param winLength	winning condition: how many stone in a line
+	 * @param result	Gomoku.NOT_OVER, PLAYER1, PLAYER2 or GAME_DRAW
+	 * @param cells		the moves in order, packed as row * boardSize + col
+	 */
+	public GameRecord(int boardSize, int winLength, int result, int[] cells) {
+		if (boardSize < 1 || boardSize > MAX_BOARD_SIZE || winLength < 1 || winLength > boardSize)
+			throw new IllegalArgumentException("Can't record " + winLength + " in a row on a " + boardSize + " board");
+		if (result < Gomoku.NOT_OVER || result > Gomoku.GAME_DRAW)
+			throw new IllegalArgumentException("Unknown result " + result);
+		for (int cell : cells)
+			if (cell < 0 || cell >= boardSize * boardSize)
+				throw new IllegalArgumentException("Move " + cell + " is off the board");
+		this.boardSize = boardSize;
+		this.winLength = winLength;
+		this.result = result;
+		this.cells = cells;
+	}
+
+	/**
+	 * Record a game as it stands
+	 *
+	 * @param gomoku the game
+	 * @return the record of its moves and status
+	 */
+	public static GameRecord of(Gomoku gomoku) {
+		return new GameRecord(gomoku.getGridNum(), gomoku.getWinLength(), gomoku.getStatus(), gomoku.snapshot());
+	}
+
+	/**
+	 * Rebuild the game after some of its moves
+	 *
+	 * @param plies how many moves to play, from 0 to getMoveCount()
+	 * @return a new game with both players human
+	 */
+	public Gomoku replay(int plies) {
+		if (plies < 0 || plies > cells.length)
+			throw new IllegalArgumentException("plies should be in [0, " + cells.length + "], got " + plies);
+		Gomoku gomoku = new Gomoku(boardSize, winLength, true, true);
+		for (int i=0; i<plies; i++)
+			if (!gomoku.makeAMove(cells[i] / boardSize, cells[i] % boardSize))
+				throw new IllegalStateException("Move " + (i + 1) + " of the record is illegal");
+		return gomoku;
+	}
+
+	/**
+	 * Rebuild the whole game
+	 *
+	 * @return a new game with both players human
+	 */
+	public Gomoku replay() {
+		return replay(cells.length);
+	}
+
+	/**
+	 * Write the record in the text notation, see the class comment
+	 *
+	 * @return one line of text
+	 */
+	public String toText() {
+		StringBuilder text = new StringBuilder();
+		text.append("size=").append(boardSize).append(" win=").append(winLength).append(" result=").append(RESULTS[result]);
+		for (int cell : cells)
+			text.append(' ').append(cell / boardSize).append(':').append(cell % boardSize);
+		return text.toString();
+	}
+
+	/**
+	 * Parse a record from the text notation, see the class comment
+	 *
+	 * @param text one line of text
+	 * @return the record
+	 */
+	public static GameRecord parse(String text) {
+		int boardSize = Gomoku.DEF_BOARD_SIZE, winLength = Gomoku.DEF_WIN_LENGTH, result = Gomoku.NOT_OVER;
+		String[] tokens = text.trim().split("\\s+");
+		int[] cells = new int[tokens.length];
+		int count = 0;
+		for (String token : tokens) {
+			int split = token.indexOf('=');
+			if (split >= 0) {
+				String value = token.substring(split + 1);
+				switch (token.substring(0, split)) {
+				case "size": boardSize = Integer.parseInt(value); break;
+				case "win": winLength = Integer.parseInt(value); break;
+				case "result":
+					result = Arrays.asList(RESULTS).indexOf(value);
+					if (result < 0)
+						throw new IllegalArgumentException("Unknown result " + value);
+					break;
+				default: throw new IllegalArgumentException("Unknown field " + token);
+				}
+				continue;
+			}
+			split = token.indexOf(':');
+			if (split < 0)
+				throw new IllegalArgumentException("Moves should be row:col, got " + token);
+			int row = Integer.parseInt(token.substring(0, split));
+			int col = Integer.parseInt(token.substring(split + 1));
+			if (row < 0 || row >= boardSize || col < 0 || col >= boardSize)
+				throw new IllegalArgumentException("Move " + token + " is off the board");
+			cells[count++] = row * boardSize + col;
+		}
+		return new GameRecord(boardSize, winLength, result, Arrays.copyOf(cells, count));
+	}
+
+	/**
+	 * Get how many rows or columns the board of the game has
+	 *
+	 * @return board size
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/**
+	 * Get the winning condition of the game
+	 *
+	 * @return how many stones in a line win
+	 */
+	public int getWinLength() {
+		return winLength;
+	}
+
+	/**
+	 * Get the result of the game
+	 *
+	 * @return Gomoku.NOT_OVER, PLAYER1, PLAYER2 or GAME_DRAW
+	 */
+	public int getResult() {
+		return result;
+	}
+
+	/**
+	 * Get how many moves the game has
+	 *
+	 * @return move count
+	 */
+	public int getMoveCount() {
+		return cells.length;
+	}
+
+	/**
+	 * Get a move
+	 *
+	 * @param ply the index of the move, 0 for the first
+	 * @return the move packed as row * boardSize + col
+	 */
+	public int getCell(int ply) {
+		return cells[ply];
+	}
+
+	/**
+	 * Get a move
+	 *
+	 * @param ply the index of the move, 0 for the first
+	 * @return the move, black plays the even plies
+	 */
+	public Move getMove(int ply) {
+		return new Move(cells[ply] / boardSize, cells[ply] % boardSize,
+				ply % 2 == 0 ? Gomoku.PLAYER1 : Gomoku.PLAYER2, ply + 1);
+	}
+
+	@Override
+	public String toString() {
+		return toText();
+	}
+
+	/**
+	 * Convert a record file to the text notation, one game per line, or back. A file named *.txt is text.
+	 *
+	 * <pre>
+	 * java -cp gomoku.jar game.GameRecord in=games.gmr out=games.txt
+	 * </pre>
+	 *
+	 * @param args in=... out=...
+	 * @throws IOException if a file can't be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		String in = null, out = null;
+		for (String arg : args) {
+			if (arg.startsWith("in=")) in = arg.substring(3);
+			else if (arg.startsWith("out=")) out = arg.substring(4);
+			else throw new IllegalArgumentException("Options should be in=FILE or out=FILE, got " + arg);
+		}
+		if (in == null || out == null)
+			throw new IllegalArgumentException("Both in and out are needed");
+
+		long games = 0;
+		if (in.endsWith(".txt")) {
+			try (BufferedReader reader = Files.newBufferedReader(Paths.get(in), StandardCharsets.UTF_8);
+					GameRecordWriter writer = new GameRecordWriter(Paths.get(out), false)) {
+				String line;
+				while ((line = reader.readLine()) != null)
+					if (!line.isBlank()) {
+						writer.write(parse(line));
+						games++;
+					}
+			}
+		} else {
+			try (GameRecordReader reader = new GameRecordReader(Paths.get(in));
+					PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8))) {
+				GameRecord record;
+				while ((record = reader.read()) != null) {
+					writer.println(record.toText());
+					games++;
+				}
+			}
+		}
+		System.out.println("Converted " + games + " games from " + in + " to " + out);
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * GameRecordReader.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the GameRecords written by GameRecordWriter one at a time, so files of millions of games are streamed
+ * instead of loaded. For example:
+ *
+ * <pre>
+ * try (GameRecordReader reader = new GameRecordReader(Paths.get("games.gmr"))) {
+ *     GameRecord record;
+ *     while ((record = reader.read()) != null)
+ *         ...
+ * }
+ * </pre>
+ */
+public class GameRecordReader implements Closeable {
+	private final DataInputStream in;
+	private long games;
+
+	/**
+	 * Constructor, read from a stream, checking the file header first
+	 *
+	 * @param stream where to read
+	 * @throws IOException if the stream can't be read or is not a record file
+	 */
+	public GameRecordReader(InputStream stream) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+		if (in.readInt() != GameRecordWriter.MAGIC)
+			throw new IOException("Not a game record file");
+		int version = in.readUnsignedByte();
+		if (version != GameRecordWriter.VERSION)
+			throw new IOException("Unsupported game record version " + version);
+	}
+
+	/**
+	 * Constructor, read from a file
+	 *
+	 * @param path the record file
+	 * @throws IOException if the file can't be read or is not a record file
+	 */
+	public GameRecordReader(Path path) throws IOException {
+		this(Files.newInputStream(path));
+	}
+
+	/**
+	 * Read the next game
+	 *
+	 * @return the game, null at the end of the stream
+	 * @throws IOException if the stream can't be read or ends inside a game
+	 */
+	public GameRecord read() throws IOException {
+		int first = in.read();
+		if (first < 0)
+			return null;
+		int boardSize = readVarint(first);
+		int winLength = readVarint(in.readUnsignedByte());
+		int result = in.readUnsignedByte();
+		int count = readVarint(in.readUnsignedByte());
+		if (boardSize > GameRecord.MAX_BOARD_SIZE || count > boardSize * boardSize)
+			throw new IOException("Corrupt game record " + (games + 1));
+		int width = GameRecordWriter.cellBytes(boardSize);
+		int[] cells = new int[count];
+		for (int i=0; i<count; i++) {
+			int cell = 0;
+			for (int b=0; b<width; b++)
+				cell = cell << 8 | in.readUnsignedByte();
+			cells[i] = cell;
+		}
+		games++;
+		try {
+			return new GameRecord(boardSize, winLength, result, cells);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt game record " + games + ": " + e.getMessage(), e);
+		}
+	}
+
+	private int readVarint(int first) throws IOException {
+		int value = first & 0x7F;
+		for (int shift = 7, b = first; (b & 0x80) != 0; shift += 7) {
+			if (shift > 28)
+				throw new IOException("Corrupt game record " + (games + 1));
+			b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+		}
+		return value;
+	}
+
+	/**
+	 * Get how many games were read
+	 *
+	 * @return game count
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * GameRecordWriter.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes GameRecords to a stream one after another. A record file starts with the magic "GMKR" and a version
+ * byte, then every game is its board size, win length, result and move count, then the moves. Numbers are
+ * unsigned varints, 7 bits a byte with the high bit set on all but the last byte. The moves, packed as
+ * row * boardSize + col, take the fewest whole bytes that hold boardSize^2 - 1: 1 byte up to 16x16.
+ */
+public class GameRecordWriter implements Closeable {
+	static final int MAGIC = 0x474D4B52;	//"GMKR"
+	static final int VERSION = 1;
+	private final DataOutputStream out;
+	private long games;
+
+	/**
+	 * Constructor, write to a stream, the file header first
+	 *
+	 * @param stream where to write
+	 * @throws IOException if the header can't be written
+	 */
+	public GameRecordWriter(OutputStream stream) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+	}
+
+	/**
+	 * Constructor, write to a file
+	 *
+	 * @param path		the record file
+	 * @param append	true to add to the games already in the file, false to replace them
+	 * @throws IOException if the file can't be written
+	 */
+	public GameRecordWriter(Path path, boolean append) throws IOException {
+		boolean header = !append || !Files.exists(path) || Files.size(path) == 0;
+		OutputStream stream = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+		this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		if (header) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+		}
+	}
+
+	/**
+	 * Write a game
+	 *
+	 * @param record the game
+	 * @throws IOException if the stream can't be written
+	 */
+	public void write(GameRecord record) throws IOException {
+		int boardSize = record.getBoardSize();
+		writeVarint(boardSize);
+		writeVarint(record.getWinLength());
+		out.writeByte(record.getResult());
+		writeVarint(record.getMoveCount());
+		int width = cellBytes(boardSize);
+		for (int i=0; i<record.getMoveCount(); i++) {
+			int cell = record.getCell(i);
+			for (int shift = (width - 1) * 8; shift >= 0; shift -= 8)
+				out.writeByte(cell >>> shift);
+		}
+		games++;
+	}
+
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/*
+	 * How many bytes a move takes on a board
+	 */
+	static int cellBytes(int boardSize) {
+		int cells = boardSize * boardSize - 1;
+		return cells < 1 << 8 ? 1 : cells < 1 << 16 ? 2 : 3;
+	}
+
+	/**
+	 * Get how many games were written
+	 *
+	 * @return game count
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Write out the buffered games
+	 *
+	 * @throws IOException if the stream can't be written
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,428 @@
+/**
+ * GameServer.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A headless server hosting many games against the AI over a line-based TCP protocol on localhost. Each request
+ * is one line and gets one line back, "OK ..." or "ERR message":
+ *
+ * <pre>
+ * NEW [size] [win] [black|white]	start a game, the human plays the given color, black by default
+ *									-&gt; OK id status [row col], with the AI's first move if it plays black
+ * MOVE id row col					play the human's move, the AI replies in the same line
+ *									-&gt; OK status [row col]
+ * STATS [id]						the move latencies of a session, or of the whole server
+ *									-&gt; OK moves=... meanMs=... p50Ms=... p95Ms=... p99Ms=... maxMs=...
+ * END id							drop a session -&gt; OK
+ * QUIT								close the connection
+ * </pre>
+ *
+ * The status is PLAYING, BLACK (black won), WHITE or DRAW. Sessions live until END, so a connection may play
+ * several of them and a session may outlive its connection.
+ *
+ * Every connection has its own thread, while the searches run on a bounded pool of AI workers, so a
+ * connection only takes a worker for the length of one search. The workers take the searches in arrival order
+ * and every search has a time budget, so busy sessions can't starve the others. When the queue of waiting
+ * searches is full, connections wait for room in arrival order; a move that found no room within 2 seconds is
+ * taken back and answered with "ERR busy". The latency of a move is measured
+ * from receiving it to the AI's reply, waiting for a worker included.
+ *
+ * An idle session keeps its game as a GameState, a few hundred bytes, and the workers borrow AIs from an
+ * AIPool for each search, so the server holds about as many AIs as workers whatever the session count. Usage:
+ *
+ * <pre>
+ * java -cp gomoku.jar game.GameServer port=7878 workers=8 queue=256 ai=time:100 tableBits=12 maxSessions=10000
+ * </pre>
+ */
+public class GameServer implements Closeable {
+	public final static int DEF_PORT = 7878;
+	private final static long BUSY_MILLIS = 2000;	//how long a move may wait for room in the worker queue
+	private final ServerSocket serverSocket;
+	private final ExecutorService connections;
+	private final ThreadPoolExecutor workers;
+	private final SelfPlay.Player player;
+	private final AIPool pool;
+	private final int maxSessions;
+	private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong(1);
+	private final Latency retired = new Latency();	//latencies of the ended sessions
+
+	/*
+	 * The move latencies of a session or of the server, in nanoseconds
+	 */
+	private static class Latency {
+		private long[] nanos = new long[16];
+		private int count;
+
+		synchronized void add(long latency) {
+			if (count == nanos.length)
+				nanos = Arrays.copyOf(nanos, count * 2);
+			nanos[count++] = latency;
+		}
+
+		synchronized void addAll(Latency other) {
+			for (long latency : other.copy())
+				add(latency);
+		}
+
+		synchronized long[] copy() {
+			return Arrays.copyOf(nanos, count);
+		}
+
+		static String summary(long[] nanos) {
+			Arrays.sort(nanos);
+			double sum = 0;
+			for (long latency : nanos)
+				sum += latency;
+			return String.format(Locale.ROOT, "moves=%d meanMs=%.3f p50Ms=%.3f p95Ms=%.3f p99Ms=%.3f maxMs=%.3f",
+					nanos.length, nanos.length == 0 ? 0 : sum / nanos.length / 1e6, percentile(nanos, 0.50),
+					percentile(nanos, 0.95), percentile(nanos, 0.99), percentile(nanos, 1));
+		}
+
+		private static double percentile(long[] sorted, double p) {
+			if (sorted.length == 0)
+				return 0;
+			return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+		}
+	}
+
+	/*
+	 * One game against the AI, requests of a session are handled one at a time. It holds no AI, the search of
+	 * each move borrows one from the pool.
+	 */
+	private static class Session {
+		private final GameState state;
+		private final boolean humanIsBlack;
+		private final Latency latency = new Latency();
+
+		Session(GameState state, boolean humanIsBlack) {
+			this.state = state;
+			this.humanIsBlack = humanIsBlack;
+		}
+	}
+
+	/**
+	 * Constructor, listen on localhost; start() accepts the connections
+	 *
+	 * @param port			the TCP port, 0 for any free one
+	 * @param workers		how many threads search moves
+	 * @param queueSize		how many searches may wait for a worker
+	 * @param player		how the AI searches
+	 * @param tableBits		the transposition table of each AI holds 2^tableBits entries
+	 * @param maxSessions	how many sessions may live at the same time
+	 * @throws IOException if the port can't be bound
+	 */
+	public GameServer(int port, int workers, int queueSize, SelfPlay.Player player, int tableBits, int maxSessions)
+			throws IOException {
+		if (workers < 1 || queueSize < 1 || maxSessions < 1)
+			throw new IllegalArgumentException("workers, queueSize and maxSessions should be positive");
+		this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		this.connections = Executors.newCachedThreadPool(daemon("gomoku-connection"));
+		//A full queue makes the connection wait its turn, the fair queue lets them in by arrival
+		this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueSize, true), daemon("gomoku-worker"), (runnable, executor) -> {
+					try {
+						if (!executor.isShutdown() && executor.getQueue().offer(runnable, BUSY_MILLIS, TimeUnit.MILLISECONDS))
+							return;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					throw new RejectedExecutionException("busy");
+				});
+		this.player = player;
+		this.pool = new AIPool(tableBits);
+		this.maxSessions = maxSessions;
+	}
+
+	private static ThreadFactory daemon(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Accept connections on a background thread until close(), the thread keeps the JVM alive
+	 */
+	public void start() {
+		Thread acceptor = new Thread(() -> {
+			while (!serverSocket.isClosed()) {
+				try {
+					Socket socket = serverSocket.accept();
+					connections.execute(() -> serve(socket));
+				} catch (IOException e) {
+					if (!serverSocket.isClosed())
+						e.printStackTrace();
+				}
+			}
+		}, "gomoku-acceptor");
+		acceptor.start();
+	}
+
+	/**
+	 * Get the port the server listens on
+	 *
+	 * @return the local port
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Get how many sessions are live
+	 *
+	 * @return session count
+	 */
+	public int getSessions() {
+		return sessions.size();
+	}
+
+	/**
+	 * Stop accepting connections and stop the threads, running searches are abandoned
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		connections.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	/*
+	 * Answer the requests of a connection until it closes or quits
+	 */
+	private void serve(Socket socket) {
+		try (Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.trim().equals("QUIT"))
+					break;
+				String response;
+				try {
+					response = handle(line.trim().split("\\s+"));
+				} catch (RuntimeException e) {	//bad numbers or arguments, a failed search
+					response = "ERR " + e.getMessage();
+				}
+				out.println(response);
+				out.flush();
+			}
+		} catch (SocketException e) {
+			//the client went away
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*
+	 * Handle one request
+	 */
+	private String handle(String[] words) {
+		switch (words[0]) {
+		case "NEW": return newSession(words);
+		case "MOVE": return move(words);
+		case "STATS": return stats(words);
+		case "END":
+			Session session = sessions.remove(id(words));
+			if (session == null)
+				return "ERR no session " + words[1];
+			retired.addAll(session.latency);
+			return "OK";
+		default: return "ERR unknown request " + words[0];
+		}
+	}
+
+	private String newSession(String[] words) {
+		int size = words.length > 1 ? Integer.parseInt(words[1]) : Gomoku.DEF_BOARD_SIZE;
+		int win = words.length > 2 ? Integer.parseInt(words[2]) : Gomoku.DEF_WIN_LENGTH;
+		boolean humanIsBlack = words.length <= 3 || words[3].equals("black");
+		if (words.length > 3 && !humanIsBlack && !words[3].equals("white"))
+			throw new IllegalArgumentException("the color should be black or white, got " + words[3]);
+		if (size < win || win < 2 || win > 7 || size > Gomoku.DEF_BOARD_SIZE * 4)
+			throw new IllegalArgumentException("can't play " + win + " in a row on a " + size + "x" + size + " board");
+		if (sessions.size() >= maxSessions)
+			return "ERR too many sessions";
+
+		Session session = new Session(new GameState(size, win), humanIsBlack);
+		long id = nextId.getAndIncrement();
+		sessions.put(id, session);
+		synchronized (session) {
+			String reply;
+			try {
+				reply = humanIsBlack ? status(session.state) : reply(session, System.nanoTime());
+			} catch (RuntimeException e) {
+				sessions.remove(id);
+				throw e;
+			}
+			if (reply == null) {
+				sessions.remove(id);
+				return "ERR busy";
+			}
+			return "OK " + id + " " + reply;
+		}
+	}
+
+	private String move(String[] words) {
+		long start = System.nanoTime();
+		Session session = session(words);
+		if (words.length != 4)
+			throw new IllegalArgumentException("MOVE needs an id, a row and a column");
+		int row = Integer.parseInt(words[2]);
+		int col = Integer.parseInt(words[3]);
+		synchronized (session) {
+			GameState state = session.state;
+			if (state.getStatus() != Gomoku.NOT_OVER)
+				return "ERR the game is over";
+			if ((state.getCurrent() == Gomoku.PLAYER1) != session.humanIsBlack)
+				return "ERR not your turn";
+			if (!state.play(row, col))
+				return "ERR illegal move " + row + " " + col;
+			if (state.getStatus() != Gomoku.NOT_OVER)
+				return "OK " + status(state);
+			//A failed search takes the human's move back too, so the session can go on
+			String reply;
+			try {
+				reply = reply(session, start);
+			} catch (RuntimeException e) {
+				state.undo();
+				throw e;
+			}
+			if (reply == null) {
+				state.undo();
+				return "ERR busy";
+			}
+			return "OK " + reply;
+		}
+	}
+
+	/*
+	 * Let the AI of a session move on a worker, null if no worker can take the search
+	 */
+	private String reply(Session session, long start) {
+		Future<Move> search;
+		try {
+			search = workers.submit(() -> pool.move(session.state, player));
+		} catch (RejectedExecutionException e) {
+			return null;
+		}
+		Move move;
+		try {
+			move = search.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("the search failed: " + e.getCause(), e.getCause());
+		}
+		if (!session.state.play(move.getRow(), move.getCol()))
+			throw new IllegalStateException("the AI made an illegal move " + move.getRow() + " " + move.getCol());
+		session.latency.add(System.nanoTime() - start);
+		return status(session.state) + " " + move.getRow() + " " + move.getCol();
+	}
+
+	private String stats(String[] words) {
+		if (words.length > 1)
+			return "OK " + Latency.summary(session(words).latency.copy());
+		List<long[]> all = new ArrayList<>();
+		all.add(retired.copy());
+		for (Session session : sessions.values())
+			all.add(session.latency.copy());
+		int count = 0;
+		for (long[] nanos : all)
+			count += nanos.length;
+		long[] merged = new long[count];
+		int at = 0;
+		for (long[] nanos : all) {
+			System.arraycopy(nanos, 0, merged, at, nanos.length);
+			at += nanos.length;
+		}
+		return "OK sessions=" + sessions.size() + " " + Latency.summary(merged);
+	}
+
+	private Session session(String[] words) {
+		Session session = sessions.get(id(words));
+		if (session == null)
+			throw new IllegalArgumentException("no session " + words[1]);
+		return session;
+	}
+
+	private static long id(String[] words) {
+		if (words.length < 2)
+			throw new IllegalArgumentException(words[0] + " needs a session id");
+		return Long.parseLong(words[1]);
+	}
+
+	private static String status(GameState state) {
+		switch (state.getStatus()) {
+		case Gomoku.PLAYER1: return "BLACK";
+		case Gomoku.PLAYER2: return "WHITE";
+		case Gomoku.GAME_DRAW: return "DRAW";
+		default: return "PLAYING";
+		}
+	}
+
+	/**
+	 * Run a server from the command line until it's killed, see the class comment for the options
+	 *
+	 * @param args key=value options
+	 * @throws IOException if the port can't be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEF_PORT, workers = Runtime.getRuntime().availableProcessors(), queue = 256;
+		int tableBits = 12, maxSessions = 10000;
+		SelfPlay.Player player = SelfPlay.Player.time(Duration.ofMillis(100));
+		for (String arg : args) {
+			int split = arg.indexOf('=');
+			if (split < 0)
+				throw new IllegalArgumentException("Options should be key=value, got " + arg);
+			String key = arg.substring(0, split);
+			String value = arg.substring(split + 1);
+			switch (key) {
+			case "port": port = Integer.parseInt(value); break;
+			case "workers": workers = Integer.parseInt(value); break;
+			case "queue": queue = Integer.parseInt(value); break;
+			case "ai": player = SelfPlay.Player.parse(value); break;
+			case "tableBits": tableBits = Integer.parseInt(value); break;
+			case "maxSessions": maxSessions = Integer.parseInt(value); break;
+			default: throw new IllegalArgumentException("Unknown option " + key);
+			}
+		}
+		GameServer server = new GameServer(port, workers, queue, player, tableBits, maxSessions);
+		server.start();
+		System.out.println("Serving on localhost:" + server.getPort() + " with " + workers + " AI workers");
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * GameState.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The state of a game kept as small as it gets, for servers holding many idle games: the board packed 2 bits a
+ * cell, and the moves as cells packed as row * boardSize + col in a short array. A 15x15 game takes 57 bytes of
+ * board and 2 bytes a move. It follows the rules of Gomoku, and toGomoku() rebuilds the full game for an AI to
+ * search, see AIPool.
+ */
+public class GameState {
+	public final static int MAX_BOARD_SIZE = 255;	//the biggest board whose cells fit in a short
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, -1}, {1, 1}};
+	private final short boardSize;
+	private final byte winLength;
+	private byte status = Gomoku.NOT_OVER;
+	private int count;			//how many moves were played
+	private short[] moves;		//moves[i]: move i packed as row * boardSize + col
+	private final byte[] board;	//the stone of cell i in bits 2*(i%4) and 2*(i%4)+1 of byte i/4
+
+	/**
+	 * Constructor, an empty board
+	 *
+	 * @param boardSize	how many rows or columns on the board, at most 255
+	 * @param winLength	winning condition: how many stone in a line
+	 */
+	public GameState(int boardSize, int winLength) {
+		if (boardSize < 1 || boardSize > MAX_BOARD_SIZE || winLength < 1 || winLength > boardSize)
+			throw new IllegalArgumentException("Can't play " + winLength + " in a row on a " + boardSize + " board");
+		this.boardSize = (short) boardSize;
+		this.winLength = (byte) winLength;
+		this.moves = new short[4];
+		this.board = new byte[(boardSize * boardSize + 3) / 4];
+	}
+
+	/**
+	 * Make a move for the player to move, same rules as Gomoku.makeAMove()
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return false if the move is illegal
+	 */
+	public boolean play(int row, int col) {
+		if (row < 0 || row >= boardSize || col < 0 || col >= boardSize || status != Gomoku.NOT_OVER)
+			return false;
+		int cell = row * boardSize + col;
+		if (get(cell) != Gomoku.EMPTY)
+			return false;
+		int player = getCurrent();
+		if (count == moves.length)
+			moves = Arrays.copyOf(moves, count + (count >> 1));
+		moves[count++] = (short) cell;
+		board[cell >> 2] |= player << ((cell & 3) << 1);
+		if (count == boardSize * boardSize)
+			status = Gomoku.GAME_DRAW;
+		else if (isWin(row, col, player))
+			status = (byte) player;
+		return true;
+	}
+
+	/**
+	 * Take back the last move
+	 *
+	 * @return false if no move was played
+	 */
+	public boolean undo() {
+		if (count == 0)
+			return false;
+		int cell = moves[--count] & 0xFFFF;
+		board[cell >> 2] &= ~(3 << ((cell & 3) << 1));
+		status = Gomoku.NOT_OVER;
+		return true;
+	}
+
+	/*
+	 * Same rule as Gomoku.isWin(): the stones next to the move add up to winLength-1, counting at most
+	 * winLength-1 on each side
+	 */
+	private boolean isWin(int row, int col, int player) {
+		for (int[] d : DIRECTIONS)
+			if (count(row, col, d[0], d[1], player) + count(row, col, -d[0], -d[1], player) == winLength - 1)
+				return true;
+		return false;
+	}
+
+	private int count(int row, int col, int rowInc, int colInc, int player) {
+		int count = 0;
+		for (int i=1; i<winLength; i++) {
+			int r = row + i * rowInc, c = col + i * colInc;
+			if (r < 0 || r >= boardSize || c < 0 || c >= boardSize || get(r * boardSize + c) != player) break;
+			count++;
+		}
+		return count;
+	}
+
+	private int get(int cell) {
+		return board[cell >> 2] >> ((cell & 3) << 1) & 3;
+	}
+
+	/**
+	 * Get the status of a position
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return EMPTY, PLAYER1 or PLAYER2
+	 */
+	public int get(int row, int col) {
+		return get(row * boardSize + col);
+	}
+
+	/**
+	 * Rebuild the game as a Gomoku
+	 *
+	 * @param player1IsHuman	true if the move-first player is human, otherwise false
+	 * @param player2IsHuman	true if the move-later player is human, otherwise false
+	 * @return a new game after the same moves
+	 */
+	public Gomoku toGomoku(boolean player1IsHuman, boolean player2IsHuman) {
+		Gomoku gomoku = new Gomoku(boardSize, winLength, player1IsHuman, player2IsHuman);
+		for (int i=0; i<count; i++)
+			gomoku.makeAMove(getCell(i) / boardSize, getCell(i) % boardSize);
+		return gomoku;
+	}
+
+	/**
+	 * Get a move
+	 *
+	 * @param ply the index of the move, 0 for the first
+	 * @return the move packed as row * boardSize + col
+	 */
+	public int getCell(int ply) {
+		if (ply < 0 || ply >= count)
+			throw new IndexOutOfBoundsException("ply " + ply + " of " + count);
+		return moves[ply] & 0xFFFF;
+	}
+
+	/**
+	 * Get how many moves were played
+	 *
+	 * @return move count
+	 */
+	public int getMoveCount() {
+		return count;
+	}
+
+	/**
+	 * Get which player on current move
+	 *
+	 * @return PLAYER1 or PLAYER2
+	 */
+	public int getCurrent() {
+		return count % 2 == 0 ? Gomoku.PLAYER1 : Gomoku.PLAYER2;
+	}
+
+	/**
+	 * Get the status of the game
+	 *
+	 * @return 0: NOT_OVER, 1: PLAYER1, 2: PLAYER2, 3: GAME_DRAW
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Get how many rows or columns the board has
+	 *
+	 * @return board size
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/**
+	 * Get the winning condition
+	 *
+	 * @return how many stones in a line win
+	 */
+	public int getWinLength() {
+		return winLength;
+	}
+}
@@ -6,10 +6,16 @@
  */
 package game;
 
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * This class hold all the information and the logic that make the game run
+ * 
+ * The moves are kept as cells packed as row * boardSize + col in an int array, together with the moves taken back
+ * after them, so a game can step back and forth to any ply one stone at a time: retreat() and redo(), or goTo().
+ * A snapshot() is the array of cells played, and fork() copies the game for a search or an analysis to branch from.
  */
 public class Gomoku {
 	public final static int DEF_BOARD_SIZE = 15;	//there are 15x15 grids on board by default
@@ -24,11 +30,13 @@ public class Gomoku {
 	private int boardSize;		//how many grids in one row or column
 	private int winLength;		//how many stones in one row for winning
 	private int[][] board;		//store the status which PLAYER1 or PLAYER2 placed or EMPTY for each grid on board
+	private BitBoard bitBoard;	//the same stones as board stored as bitsets, null if the board is too large for it
 	private boolean isHuman[];	//isHuman[0]: is player1 human; isHuman[1]: is player2 human
-	private int step; 			//current step number
 	private int current;		//current player role
 	private int status;			//values include: NOT_OVER, PLAYER1, PLAYER2, GAME_DRAW
-	private Stack<Move> moves;	//store each step of move
+	private int[] history;		//history[i]: move i packed as row * boardSize + col, the moves taken back included
+	private int count;			//how many moves are played, the first count moves of history
+	private int length;			//how many moves history holds, count up to length can be redone
 	
 	/**
 	 * Default constructor. 
@@ -51,10 +59,27 @@ public class Gomoku {
 		this.winLength = winLength;
 		this.isHuman = new boolean[]{player1IsHuman, player2IsHuman};
 		initBoard();
-		this.step = 1;
 		this.current = PLAYER1;
 		this.status = NOT_OVER;
-		this.moves = new Stack<>();
+		this.history = new int[16];
+	}
+	
+	/*
+	 * Constructor of fork(), a copy of the game
+	 */
+	private Gomoku(Gomoku game) {
+		this.boardSize = game.boardSize;
+		this.winLength = game.winLength;
+		this.isHuman = game.isHuman.clone();
+		this.board = new int[boardSize][];
+		for (int i=0; i<boardSize; i++)
+			this.board[i] = game.board[i].clone();
+		this.bitBoard = game.bitBoard == null ? null : game.bitBoard.copy();
+		this.current = game.current;
+		this.status = game.status;
+		this.history = Arrays.copyOf(game.history, Math.max(game.length, 16));
+		this.count = game.count;
+		this.length = game.length;
 	}
 	
 	/**
@@ -68,32 +93,108 @@ public class Gomoku {
 		if (!indexLegalCheck(row, col) || board[row][col] != EMPTY || status != NOT_OVER) 
 			return false;
 		
-		moves.push(new Move(row, col, current, step++));
+		//A move other than the next one to redo drops the moves taken back
+		int cell = row * boardSize + col;
+		if (count == length || history[count] != cell) {
+			if (count == history.length)
+				history = Arrays.copyOf(history, count * 2);
+			history[count] = cell;
+			length = count + 1;
+		}
+		count++;
+		place(row, col);
+		
+		return true;
+	}
+	
+	private void place(int row, int col) {
 		board[row][col] = current;
+		if (bitBoard != null) bitBoard.set(row, col, current);
 		status = gameStatus();
 		current = current == PLAYER1 ? PLAYER2 : PLAYER1;
-		
-		return true;
 	}
 	
 	/**
-	 * Retreat the last move
+	 * Retreat the last move, it can be redone until another move is made
 	 * 
-	 * @return a Move instance of last move
+	 * @return a Move instance of last move, null if no move was made
 	 */
 	public Move retreat() {
-		Move lastMove = null;
-		if (!moves.empty()) {
-			lastMove = moves.pop();
-			int row = lastMove.getRow();
-			int col = lastMove.getCol();
-			board[row][col] = EMPTY;
-			current = current == PLAYER1 ? PLAYER2 : PLAYER1;
-			step--;
-		}
+		if (count == 0)
+			return null;
+		Move lastMove = getMove(count - 1);
+		int row = lastMove.getRow();
+		int col = lastMove.getCol();
+		board[row][col] = EMPTY;
+		if (bitBoard != null) bitBoard.clear(row, col);
+		current = current == PLAYER1 ? PLAYER2 : PLAYER1;
+		status = NOT_OVER;
+		count--;
 		return lastMove;
 	}
 	
+	/**
+	 * Make again the last move taken back
+	 * 
+	 * @return a Move instance of the move, null if there is no move to redo
+	 */
+	public Move redo() {
+		if (count == length)
+			return null;
+		int cell = history[count++];
+		place(cell / boardSize, cell % boardSize);
+		return getMove(count - 1);
+	}
+	
+	/**
+	 * Retreat or redo moves until a number of moves are played
+	 * 
+	 * @param ply how many moves to be played, from 0 up to the moves played and the moves to redo
+	 */
+	public void goTo(int ply) {
+		if (ply < 0 || ply > length)
+			throw new IllegalArgumentException("ply should be in [0, " + length + "], got " + ply);
+		while (count > ply)
+			retreat();
+		while (count < ply)
+			redo();
+	}
+	
+	/**
+	 * Save the moves played, see restore()
+	 * 
+	 * @return the moves packed as row * boardSize + col
+	 */
+	public int[] snapshot() {
+		return Arrays.copyOf(history, count);
+	}
+	
+	/**
+	 * Bring the game back to a snapshot: retreat to the last move the game and the snapshot share, then play the
+	 * moves of the snapshot after it
+	 * 
+	 * @param snapshot the moves of a snapshot() of this game
+	 */
+	public void restore(int[] snapshot) {
+		int common = 0;
+		while (common < count && common < snapshot.length && history[common] == snapshot[common])
+			common++;
+		goTo(common);
+		for (int i=common; i<snapshot.length; i++) {
+			if (!makeAMove(snapshot[i] / boardSize, snapshot[i] % boardSize))
+				throw new IllegalArgumentException("the move " + i + " of the snapshot is illegal");
+		}
+	}
+	
+	/**
+	 * Copy the game, the moves to redo included
+	 * 
+	 * @return a game that plays on independently of this one
+	 */
+	public Gomoku fork() {
+		return new Gomoku(this);
+	}
+	
 	/**
 	 * Check game status after each move
 	 * 
@@ -104,13 +205,12 @@ public class Gomoku {
 	 */
 	public int gameStatus() {
 		int status = NOT_OVER;
-		Move lastMove = moves.peek();
-		int row = lastMove.getRow();
-		int col = lastMove.getCol();
+		int row = history[count - 1] / boardSize;
+		int col = history[count - 1] % boardSize;
 		
-		if (moves.size() == boardSize * boardSize) {
+		if (count == boardSize * boardSize) {
 			status = GAME_DRAW;
-		} else if (isWin(row, col, board)) {
+		} else if (bitBoard != null ? isWin(row, col, bitBoard) : isWin(row, col, board)) {
 			status =  board[row][col];
 		}
 		
@@ -155,6 +255,18 @@ public class Gomoku {
 		return false;
 	}
 	
+	/**
+	 * Winning condition check on all the lines cross this position, same rule as isWin() on a board array
+	 * 
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @param board	the game board stored as bitsets
+	 * @return	true if match winning condition
+	 */
+	public boolean isWin(int row, int col, BitBoard board) {
+		return board.isWin(row, col, winLength);
+	}
+	
 	private int linearCount(int[][] board, int row, int col, int rowInc, int colInc) {
 		int count = 0;
 		int player = board[row][col];
@@ -176,6 +288,8 @@ public class Gomoku {
 				board[i][j] = EMPTY;
 			}
 		}
+		if (boardSize <= BitBoard.MAX_SIZE)
+			bitBoard = new BitBoard(boardSize, boardSize);
 	}
 
 	/**
@@ -190,12 +304,54 @@ public class Gomoku {
 	/**
 	 * Getter for moves history
 	 * 
-	 * @return a stack of moves in this game
+	 * @return a new list of the moves played in this game, the first move first
 	 */
-	public Stack<Move> getMoves() {
+	public List<Move> getMoves() {
+		List<Move> moves = new ArrayList<>(count);
+		for (int i=0; i<count; i++)
+			moves.add(getMove(i));
 		return moves;
 	}
 
+	/**
+	 * Get a move played
+	 * 
+	 * @param ply the index of the move, 0 for the first
+	 * @return a Move instance of the move
+	 */
+	public Move getMove(int ply) {
+		if (ply < 0 || ply >= count)
+			throw new IndexOutOfBoundsException("ply " + ply + " of " + count);
+		return new Move(history[ply] / boardSize, history[ply] % boardSize, ply % 2 == 0 ? PLAYER1 : PLAYER2, ply + 1);
+	}
+
+	/**
+	 * Get the last move played
+	 * 
+	 * @return a Move instance of the last move, null if no move was made
+	 */
+	public Move getLastMove() {
+		return count == 0 ? null : getMove(count - 1);
+	}
+
+	/**
+	 * Get how many moves are played
+	 * 
+	 * @return move count
+	 */
+	public int getMoveCount() {
+		return count;
+	}
+
+	/**
+	 * Get how many moves are played or can be redone
+	 * 
+	 * @return move count, the moves taken back included
+	 */
+	public int getHistoryLength() {
+		return length;
+	}
+
 	/**
 	 * Get the board
 	 * 
@@ -205,6 +361,15 @@ public class Gomoku {
 		return board;
 	}
 
+	/**
+	 * Get the board stored as bitsets
+	 * 
+	 * @return the bitboard holding the same stones as getBoard(), null if the board is larger than BitBoard.MAX_SIZE
+	 */
+	public BitBoard getBitBoard() {
+		return bitBoard;
+	}
+
 	/**
 	 * Get the roles of the players
 	 * 
@@ -238,7 +403,7 @@ public class Gomoku {
 	 * @return
 	 */
 	public int getStep() {
-		return step;
+		return count + 1;
 	}
 
 	/**
@@ -6,9 +6,10 @@
  */
 package game;
 
-import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
@@ -29,9 +30,9 @@ import javafx.geometry.VPos;
  * This class run a GUI for the game
  */
 public class GomokuGUI extends Application {
+	private static final String TITLE = "Game: Gomoku / Gobang / Five_In_A_Row";
 	private Gomoku gomoku;
 	private AI ai;
-	private Stack<Move> moves;
 	private Canvas canvas;
 	private GraphicsContext gc;
 	private int gridNum;
@@ -39,6 +40,8 @@ public class GomokuGUI extends Application {
 	private double offset;
 	private Pane root;
 	private StackPane stones[][];
+	private Stage stage;
+	private CompletableFuture<Move> thinking;	//the AI's move being searched, null if none
 	
 	/**
 	 * Constructor
@@ -46,7 +49,7 @@ public class GomokuGUI extends Application {
 	public GomokuGUI() {
 		this.gomoku = new Gomoku();
 		this.ai = new AI(gomoku);
-		this.moves = gomoku.getMoves();
+		this.ai.setPondering(true);
 		this.canvas = new Canvas(600, 600);
 		this.gc = canvas.getGraphicsContext2D();
 		this.gridNum = gomoku.getGridNum();
@@ -78,13 +81,14 @@ public class GomokuGUI extends Application {
 					clickBoard(e);
 				} else if (button==MouseButton.SECONDARY) {
 					boolean isHuman[] = gomoku.getIsHuman();
-					if (isHuman[0] && isHuman[1])
+					if (isHuman[0] || isHuman[1])
 						retreat();
 				}
 			}
 		});
 		root.getChildren().add(canvas);
-		primaryStage.setTitle("Game: Gomoku / Gobang / Five_In_A_Row");
+		stage = primaryStage;
+		primaryStage.setTitle(TITLE);
 		primaryStage.setScene(new Scene(root));
 		primaryStage.show();		
 	}
@@ -104,7 +108,7 @@ public class GomokuGUI extends Application {
 	
 	private boolean makeAMove(int row, int col) {
 		if (gomoku.makeAMove(row, col)) {
-			Move lastMove = moves.peek();
+			Move lastMove = gomoku.getLastMove();
 			drawMove(row, col, lastMove.getPlayer(), lastMove.getStep());
 			
 			//Check if the game end
@@ -117,12 +121,20 @@ public class GomokuGUI extends Application {
 	}
 	
 	private void retreat() {
-		Move lastMove = gomoku.retreat();
-		if (lastMove != null) {
-			int row = lastMove.getRow();
-			int col = lastMove.getCol();
-			root.getChildren().remove(stones[row][col]);
+		//Abort the AI's search and wait for it to stop, then take moves back until a human is to move
+		if (thinking != null) {
+			ai.cancelMove(thinking);
+			thinking = null;
+			stage.setTitle(TITLE);
 		}
+		ai.stopPondering();
+		boolean[] isHuman = gomoku.getIsHuman();
+		do {
+			Move lastMove = gomoku.retreat();
+			if (lastMove == null)
+				break;
+			root.getChildren().remove(stones[lastMove.getRow()][lastMove.getCol()]);
+		} while (!isHuman[gomoku.getCurrent() - 1]);
 	}
 	
 	private void checkStatus() {		
@@ -144,8 +156,24 @@ public class GomokuGUI extends Application {
 				boolean[] isHuman = gomoku.getIsHuman();
 				boolean currentIsHuman = gomoku.getCurrent() == Gomoku.PLAYER1 ? isHuman[0] : isHuman[1];
 				if (!currentIsHuman) {
-					Move move = ai.nextMove();
-					makeAMove(move.getRow(), move.getCol());
+					//Search off the JavaFX thread, the move is played back on it unless it was taken back
+					CompletableFuture<Move> request = ai.requestMove((move, depth, score) -> Platform.runLater(() -> {
+						if (thinking != null)
+							stage.setTitle(TITLE + " - thinking: depth " + depth + ", best [" + move.getRow() + ", "
+									+ move.getCol() + "]");
+					}));
+					thinking = request;
+					request.thenAccept(move -> Platform.runLater(() -> {
+						if (thinking != request)
+							return;
+						thinking = null;
+						stage.setTitle(TITLE);
+						makeAMove(move.getRow(), move.getCol());
+					})).exceptionally(e -> {
+						if (!request.isCancelled())
+							e.printStackTrace();
+						return null;
+					});
 				}
 				break;
 		}
@@ -155,6 +183,7 @@ public class GomokuGUI extends Application {
 	private void terminalGame(String txt, Color color) {
 		//Remove mouse event listener
 		canvas.setOnMouseClicked(null);
+		ai.stopPondering();
 		
 		Text msg = new Text(canvas.getWidth()/4, canvas.getHeight()-10, txt);
 		msg.setFill(color);
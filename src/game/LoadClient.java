@@ -0,0 +1,242 @@
+/**
+ * LoadClient.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A load generator for the GameServer. Each client opens a connection and plays games one after another,
+ * choosing random empty cells near the stones, and times every MOVE from sending it to reading the reply. A
+ * request the server was too busy for is counted as an error and retried after a short pause.
+ * The round trips are summarized as JSON, together with the server's own latency statistics. Usage:
+ *
+ * <pre>
+ * java -cp gomoku.jar game.LoadClient port=7878 clients=200 games=5 size=15 win=5 seed=1
+ * </pre>
+ */
+public class LoadClient {
+	private final static int NEAR = 2;			//random moves are at most this far from a stone
+	private final static long BACKOFF_MILLIS = 10;	//how long to wait after the server was busy
+	private final int port;
+	private final int boardSize;
+	private final int winLength;
+	private final long seed;
+
+	/**
+	 * Constructor
+	 *
+	 * @param port		the port of the server on localhost
+	 * @param boardSize	how many rows or columns on the board
+	 * @param winLength	winning condition: how many stone in a line
+	 * @param seed		seed of the random moves
+	 */
+	public LoadClient(int port, int boardSize, int winLength, long seed) {
+		this.port = port;
+		this.boardSize = boardSize;
+		this.winLength = winLength;
+		this.seed = seed;
+	}
+
+	/**
+	 * Run the clients at the same time
+	 *
+	 * @param clients	how many connections to open
+	 * @param games		how many games each client plays
+	 * @return the round trip of every move in nanoseconds, the errors counted as negative ones
+	 */
+	public long[] run(int clients, int games) {
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		try {
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int i=0; i<clients; i++) {
+				int client = i;
+				futures.add(pool.submit(() -> play(client, games)));
+			}
+			List<long[]> all = new ArrayList<>();
+			int count = 0;
+			for (Future<long[]> future : futures) {
+				all.add(future.get());
+				count += all.get(all.size() - 1).length;
+			}
+			long[] nanos = new long[count];
+			int at = 0;
+			for (long[] part : all) {
+				System.arraycopy(part, 0, nanos, at, part.length);
+				at += part.length;
+			}
+			return nanos;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Load interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Client failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/*
+	 * Play the games of one client on its own connection
+	 */
+	private long[] play(int client, int games) throws IOException, InterruptedException {
+		Random random = new Random(seed + client);
+		long[] nanos = new long[16];
+		int count = 0;
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			for (int game=0; game<games; game++) {
+				boolean black = random.nextBoolean();
+				String[] reply = request(in, out, "NEW " + boardSize + " " + winLength + (black ? " black" : " white"));
+				if (reply[0].equals("ERR")) {
+					Thread.sleep(BACKOFF_MILLIS);
+					game--;
+					continue;
+				}
+				String id = reply[1];
+				int[][] board = new int[boardSize][boardSize];
+				if (!black)
+					board[Integer.parseInt(reply[3])][Integer.parseInt(reply[4])] = 1;
+				while (true) {
+					int[] move = randomMove(board, random);
+					if (move == null)
+						break;
+					long start = System.nanoTime();
+					reply = request(in, out, "MOVE " + id + " " + move[0] + " " + move[1]);
+					long latency = System.nanoTime() - start;
+					if (count == nanos.length)
+						nanos = Arrays.copyOf(nanos, count * 2);
+					if (reply[0].equals("ERR")) {
+						nanos[count++] = -latency;
+						Thread.sleep(BACKOFF_MILLIS);
+						continue;
+					}
+					nanos[count++] = latency;
+					board[move[0]][move[1]] = 1;
+					if (reply.length > 2)
+						board[Integer.parseInt(reply[2])][Integer.parseInt(reply[3])] = 1;
+					if (!reply[1].equals("PLAYING"))
+						break;
+				}
+				request(in, out, "END " + id);
+			}
+			out.println("QUIT");
+			out.flush();
+		}
+		return Arrays.copyOf(nanos, count);
+	}
+
+	private static String[] request(BufferedReader in, PrintWriter out, String line) throws IOException {
+		out.println(line);
+		out.flush();
+		String reply = in.readLine();
+		if (reply == null)
+			throw new IOException("The server closed the connection");
+		return reply.split(" ");
+	}
+
+	/*
+	 * Pick an empty cell close to a stone, the center on an empty board, null if the board is full
+	 */
+	private int[] randomMove(int[][] board, Random random) {
+		List<int[]> near = new ArrayList<>();
+		List<int[]> empty = new ArrayList<>();
+		for (int i=0; i<boardSize; i++)
+			for (int j=0; j<boardSize; j++) {
+				if (board[i][j] != 0)
+					continue;
+				empty.add(new int[] {i, j});
+				search:
+				for (int r=Math.max(0, i-NEAR); r<=Math.min(boardSize-1, i+NEAR); r++)
+					for (int c=Math.max(0, j-NEAR); c<=Math.min(boardSize-1, j+NEAR); c++)
+						if (board[r][c] != 0) {
+							near.add(new int[] {i, j});
+							break search;
+						}
+			}
+		if (empty.isEmpty())
+			return null;
+		if (near.isEmpty())
+			return new int[] {boardSize / 2, boardSize / 2};
+		return near.get(random.nextInt(near.size()));
+	}
+
+	/**
+	 * Summarize the round trips as JSON
+	 *
+	 * @param nanos		the round trips returned by run(), errors negative
+	 * @param seconds	the wall-clock time of the run
+	 * @return a JSON object of the move count, errors, moves per second and round trip percentiles
+	 */
+	public static String summary(long[] nanos, double seconds) {
+		long[] ok = Arrays.stream(nanos).filter(latency -> latency >= 0).sorted().toArray();
+		return String.format(Locale.ROOT, "{\"moves\": %d, \"errors\": %d, \"movesPerSecond\": %.1f, "
+				+ "\"p50Ms\": %.3f, \"p95Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f}",
+				ok.length, nanos.length - ok.length, ok.length / seconds,
+				percentile(ok, 0.50), percentile(ok, 0.95), percentile(ok, 0.99), percentile(ok, 1));
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		if (sorted.length == 0)
+			return 0;
+		return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+	/**
+	 * Load a server from the command line, see the class comment for the options
+	 *
+	 * @param args key=value options
+	 * @throws IOException if the server can't be reached
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = GameServer.DEF_PORT, clients = 100, games = 5;
+		int size = Gomoku.DEF_BOARD_SIZE, win = Gomoku.DEF_WIN_LENGTH;
+		long seed = 1;
+		for (String arg : args) {
+			int split = arg.indexOf('=');
+			if (split < 0)
+				throw new IllegalArgumentException("Options should be key=value, got " + arg);
+			String key = arg.substring(0, split);
+			String value = arg.substring(split + 1);
+			switch (key) {
+			case "port": port = Integer.parseInt(value); break;
+			case "clients": clients = Integer.parseInt(value); break;
+			case "games": games = Integer.parseInt(value); break;
+			case "size": size = Integer.parseInt(value); break;
+			case "win": win = Integer.parseInt(value); break;
+			case "seed": seed = Long.parseLong(value); break;
+			default: throw new IllegalArgumentException("Unknown option " + key);
+			}
+		}
+
+		LoadClient client = new LoadClient(port, size, win, seed);
+		long start = System.nanoTime();
+		long[] nanos = client.run(clients, games);
+		System.out.println(summary(nanos, (System.nanoTime() - start) / 1e9));
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			System.out.println("server: " + String.join(" ", request(in, out, "STATS")));
+		}
+	}
+}
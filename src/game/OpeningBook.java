@@ -0,0 +1,173 @@
+/**
+ * OpeningBook.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A book of opening moves read from a memory-mapped file, so a lookup is a binary search over the mapped
+ * entries and the book takes no heap. Positions are stored under their canonical hash, the smallest Zobrist hash
+ * of the 8 board symmetries, so one entry serves every rotation and reflection of a position. Books are built
+ * by OpeningBookBuilder.
+ *
+ * The file is a 32 byte header: magic, version, board size, win length, entry count, a reserved int and the
+ * Zobrist key of a stone as a check the hashes match; then the entries sorted by hash, 12 bytes each: the
+ * canonical hash, the move as row * boardSize + col on the canonical board, and how many games played it.
+ * Everything is big-endian.
+ */
+public class OpeningBook {
+	private static final int MAGIC = 0x474D4B42;	//"GMKB"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+	private static final int ENTRY_BYTES = 12;
+	private final ByteBuffer entries;
+	private final int boardSize;
+	private final int winLength;
+	private final int count;
+	private final Zobrist zobrist;
+
+	private OpeningBook(ByteBuffer buffer) {
+		if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+			throw new IllegalArgumentException("Not an opening book");
+		if (buffer.getInt(4) != VERSION)
+			throw new IllegalArgumentException("Unsupported opening book version " + buffer.getInt(4));
+		this.boardSize = buffer.getInt(8);
+		this.winLength = buffer.getInt(12);
+		this.count = buffer.getInt(16);
+		this.zobrist = new Zobrist(boardSize, boardSize);
+		if (buffer.getLong(24) != zobrist.key(Gomoku.PLAYER1, 0, 0))
+			throw new IllegalArgumentException("The opening book was hashed with other Zobrist keys");
+		if (buffer.limit() < HEADER_BYTES + (long) count * ENTRY_BYTES)
+			throw new IllegalArgumentException("The opening book is truncated");
+		this.entries = buffer;
+	}
+
+	/**
+	 * Map a book file
+	 *
+	 * @param path the book file
+	 * @return the book
+	 * @throws IOException if the file can't be read
+	 */
+	public static OpeningBook open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new OpeningBook(buffer);
+		}
+	}
+
+	/**
+	 * Look up the book move of a game's position
+	 *
+	 * @param gomoku the game, on a board of the book's size
+	 * @return the move for the player to move, or null if the position is not in the book
+	 */
+	public Move probe(Gomoku gomoku) {
+		int[][] board = gomoku.getBoard();
+		if (board.length != boardSize || gomoku.getWinLength() != winLength)
+			return null;
+		int symmetry = Symmetry.canonical(zobrist, board);
+		int entry = find(zobrist.hash(board, symmetry));
+		if (entry < 0)
+			return null;
+
+		//The move is stored on the canonical board, map it back
+		int cell = entries.getShort(HEADER_BYTES + entry * ENTRY_BYTES + 8);
+		int inverse = Symmetry.inverse(symmetry);
+		int canonicalRow = cell / boardSize;
+		int canonicalCol = cell % boardSize;
+		int row = Symmetry.row(inverse, boardSize, canonicalRow, canonicalCol);
+		int col = Symmetry.col(inverse, boardSize, canonicalRow, canonicalCol);
+		if (board[row][col] != Gomoku.EMPTY)	//a hash collision
+			return null;
+		return new Move(row, col, gomoku.getCurrent(), gomoku.getStep());
+	}
+
+	/*
+	 * Binary search the entries for a hash, -1 if it's not there
+	 */
+	private int find(long hash) {
+		int low = 0, high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long key = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+			if (key < hash) low = mid + 1;
+			else if (key > hash) high = mid - 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * Get how many rows or columns the board of the book's positions has
+	 *
+	 * @return board size
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/**
+	 * Get the winning condition of the book's positions
+	 *
+	 * @return how many stones in a line win
+	 */
+	public int getWinLength() {
+		return winLength;
+	}
+
+	/**
+	 * Get how many positions the book holds
+	 *
+	 * @return the entry count
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Write a book file
+	 *
+	 * @param path		where to write
+	 * @param boardSize	how many rows or columns on the board
+	 * @param winLength	winning condition: how many stone in a line
+	 * @param hashes	the canonical hashes of the positions
+	 * @param moves		moves[i]: the move of position i on the canonical board, as row * boardSize + col
+	 * @param games		games[i]: how many games played the move, capped at Short.MAX_VALUE
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(Path path, int boardSize, int winLength, long[] hashes, int[] moves, int[] games)
+			throws IOException {
+		Integer[] order = new Integer[hashes.length];
+		for (int i=0; i<order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, Comparator.comparingLong(i -> hashes[i]));
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + hashes.length * ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(boardSize).putInt(winLength).putInt(hashes.length).putInt(0);
+		buffer.putLong(new Zobrist(boardSize, boardSize).key(Gomoku.PLAYER1, 0, 0));
+		for (int i : order) {
+			buffer.putLong(hashes[i]);
+			buffer.putShort((short) moves[i]);
+			buffer.putShort((short) Math.min(games[i], Short.MAX_VALUE));
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+	}
+}
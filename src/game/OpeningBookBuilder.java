@@ -0,0 +1,219 @@
+/**
+ * OpeningBookBuilder.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an OpeningBook from games, usually the CSV written by SelfPlay. Every game adds the move it played in
+ * each of its first positions, under the canonical hash of the position. The book keeps, for each position, the
+ * move that scored best for its player over at least a minimum number of games. Usage:
+ *
+ * <pre>
+ * java -cp gomoku.jar game.OpeningBookBuilder csv=games.csv,more.csv out=book.bin plies=12 minGames=4
+ * </pre>
+ *
+ * Other options: size (board size), win (win length), both must match the games; records, game record files
+ * (see GameRecordWriter) to read instead of or besides the CSVs.
+ */
+public class OpeningBookBuilder {
+	private final int boardSize;
+	private final int winLength;
+	private final int plies;
+	private final int minGames;
+	private final Zobrist zobrist;
+	private final Map<Long, Map<Integer, int[]>> stats = new HashMap<>();	//hash -> canonical move -> {games, half points}
+
+	/**
+	 * Constructor
+	 *
+	 * @param boardSize	how many rows or columns on the board
+	 * @param winLength	winning condition: how many stone in a line
+	 * @param plies		how many moves of each game go into the book
+	 * @param minGames	how many games must have played a move for the book to keep it
+	 */
+	public OpeningBookBuilder(int boardSize, int winLength, int plies, int minGames) {
+		if (plies < 1 || minGames < 1)
+			throw new IllegalArgumentException("plies and minGames should be positive, got " + plies + " and " + minGames);
+		this.boardSize = boardSize;
+		this.winLength = winLength;
+		this.plies = plies;
+		this.minGames = minGames;
+		this.zobrist = new Zobrist(boardSize, boardSize);
+	}
+
+	/**
+	 * Add a game
+	 *
+	 * @param moves		the moves in order, black first
+	 * @param winner	Gomoku.PLAYER1, Gomoku.PLAYER2 or Gomoku.GAME_DRAW
+	 */
+	public void addGame(List<Move> moves, int winner) {
+		int[][] board = new int[boardSize][boardSize];
+		int player = Gomoku.PLAYER1;
+		for (int i=0; i<Math.min(plies, moves.size()); i++) {
+			Move move = moves.get(i);
+			int symmetry = Symmetry.canonical(zobrist, board);
+			long hash = zobrist.hash(board, symmetry);
+			int cell = Symmetry.row(symmetry, boardSize, move.getRow(), move.getCol()) * boardSize
+					+ Symmetry.col(symmetry, boardSize, move.getRow(), move.getCol());
+			int[] moveStats = stats.computeIfAbsent(hash, k -> new HashMap<>()).computeIfAbsent(cell, k -> new int[2]);
+			moveStats[0]++;
+			moveStats[1] += winner == player ? 2 : winner == Gomoku.GAME_DRAW ? 1 : 0;
+
+			board[move.getRow()][move.getCol()] = player;
+			player = Gomoku.PLAYER1 + Gomoku.PLAYER2 - player;
+		}
+	}
+
+	/**
+	 * Add the games of a CSV written by SelfPlay
+	 *
+	 * @param path the CSV file
+	 * @throws IOException if the file can't be read
+	 */
+	public void addCsv(Path path) throws IOException {
+		try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			List<String> header = List.of(in.readLine().split(","));
+			int blackColumn = header.indexOf("black");
+			int winnerColumn = header.indexOf("winner");
+			int movesColumn = header.indexOf("moves");
+			if (blackColumn < 0 || winnerColumn < 0 || movesColumn < 0)
+				throw new IllegalArgumentException(path + " has no black, winner or moves column");
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] fields = line.split(",");
+				int winner = Gomoku.GAME_DRAW;
+				if (!fields[winnerColumn].equals("draw"))
+					winner = fields[winnerColumn].equals(fields[blackColumn]) ? Gomoku.PLAYER1 : Gomoku.PLAYER2;
+				addGame(parseMoves(fields[movesColumn]), winner);
+			}
+		}
+	}
+
+	/**
+	 * Add the finished games of a game record file, the games of another board or win length are skipped
+	 *
+	 * @param path the record file
+	 * @throws IOException if the file can't be read
+	 */
+	public void addRecords(Path path) throws IOException {
+		try (GameRecordReader in = new GameRecordReader(path)) {
+			GameRecord record;
+			while ((record = in.read()) != null) {
+				if (record.getResult() == Gomoku.NOT_OVER || record.getBoardSize() != boardSize
+						|| record.getWinLength() != winLength)
+					continue;
+				Move[] moves = new Move[Math.min(plies, record.getMoveCount())];
+				for (int i=0; i<moves.length; i++)
+					moves[i] = record.getMove(i);
+				addGame(List.of(moves), record.getResult());
+			}
+		}
+	}
+
+	/*
+	 * Parse moves written as row:col separated by spaces
+	 */
+	private static List<Move> parseMoves(String text) {
+		String[] tokens = text.trim().split(" ");
+		Move[] moves = new Move[tokens.length];
+		for (int i=0; i<tokens.length; i++) {
+			int split = tokens[i].indexOf(':');
+			moves[i] = new Move(Integer.parseInt(tokens[i].substring(0, split)),
+					Integer.parseInt(tokens[i].substring(split + 1)), i % 2 == 0 ? Gomoku.PLAYER1 : Gomoku.PLAYER2, i + 1);
+		}
+		return List.of(moves);
+	}
+
+	/**
+	 * Write the book
+	 *
+	 * @param path where to write
+	 * @return how many positions the book holds
+	 * @throws IOException if the file can't be written
+	 */
+	public int write(Path path) throws IOException {
+		long[] hashes = new long[stats.size()];
+		int[] moves = new int[stats.size()];
+		int[] games = new int[stats.size()];
+		int count = 0;
+		for (Map.Entry<Long, Map<Integer, int[]>> position : stats.entrySet()) {
+			int bestMove = -1;
+			int[] best = null;
+			for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+				int[] moveStats = move.getValue();
+				if (moveStats[0] < minGames)
+					continue;
+				//Compare the mean points, then prefer the move played more
+				long diff = best == null ? 1 : (long) moveStats[1] * best[0] - (long) best[1] * moveStats[0];
+				if (diff > 0 || diff == 0 && moveStats[0] > best[0]) {
+					best = moveStats;
+					bestMove = move.getKey();
+				}
+			}
+			if (best == null)
+				continue;
+			hashes[count] = position.getKey();
+			moves[count] = bestMove;
+			games[count] = best[0];
+			count++;
+		}
+		OpeningBook.write(path, boardSize, winLength, Arrays.copyOf(hashes, count),
+				Arrays.copyOf(moves, count), Arrays.copyOf(games, count));
+		return count;
+	}
+
+	/**
+	 * Build a book from the command line, see the class comment for the options
+	 *
+	 * @param args key=value options
+	 * @throws IOException if a CSV or record file can't be read or the book can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		int size = Gomoku.DEF_BOARD_SIZE, win = Gomoku.DEF_WIN_LENGTH, plies = 12, minGames = 2;
+		String csv = null, records = null, out = "book.bin";
+		for (String arg : args) {
+			int split = arg.indexOf('=');
+			if (split < 0)
+				throw new IllegalArgumentException("Options should be key=value, got " + arg);
+			String key = arg.substring(0, split);
+			String value = arg.substring(split + 1);
+			switch (key) {
+			case "csv": csv = value; break;
+			case "records": records = value; break;
+			case "out": out = value; break;
+			case "size": size = Integer.parseInt(value); break;
+			case "win": win = Integer.parseInt(value); break;
+			case "plies": plies = Integer.parseInt(value); break;
+			case "minGames": minGames = Integer.parseInt(value); break;
+			default: throw new IllegalArgumentException("Unknown option " + key);
+			}
+		}
+		if (csv == null && records == null)
+			throw new IllegalArgumentException("Missing the csv or records option");
+
+		OpeningBookBuilder builder = new OpeningBookBuilder(size, win, plies, minGames);
+		if (csv != null)
+			for (String file : csv.split(","))
+				builder.addCsv(Paths.get(file));
+		if (records != null)
+			for (String file : records.split(","))
+				builder.addRecords(Paths.get(file));
+		int count = builder.write(Paths.get(out));
+		System.out.println("Wrote " + count + " positions to " + out);
+	}
+}
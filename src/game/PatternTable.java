@@ -0,0 +1,167 @@
+/**
+ * PatternTable.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * A lookup table from the pattern of one line through an empty position to the score of the position on that
+ * line. A pattern is the window of winLength-1 cells on each side of the position, every cell being one of
+ * empty, the player's stone, or blocked (an opponent's stone or off the board), encoded as a base-3 index.
+ * The table is built once per winLength by classifying every possible window.
+ */
+public class PatternTable {
+	private static final PatternTable[] TABLES = new PatternTable[8];
+	private final int winLength;
+	private final int rayLength;	//how many cells on each side of the position
+	private final int rayMask;
+	private final int[] base3;		//base3[bits]: the bits read as a base-3 number, for the digit 1
+	private final int sideSize;		//3^rayLength, the index span of one side
+	private final int[] scores;		//scores[back + sideSize * front]: the score of the pattern
+
+	private PatternTable(int winLength) {
+		this.winLength = winLength;
+		this.rayLength = winLength - 1;
+		this.rayMask = (1 << rayLength) - 1;
+		this.base3 = new int[1 << rayLength];
+		for (int bits=1; bits<base3.length; bits++) {
+			int lowest = Integer.numberOfTrailingZeros(bits);
+			base3[bits] = base3[bits & bits - 1] + pow3(lowest);
+		}
+		this.sideSize = pow3(rayLength);
+		this.scores = new int[sideSize * sideSize];
+
+		OneWayCount[] sides = new OneWayCount[sideSize];
+		for (int side=0; side<sideSize; side++) {
+			int mine = 0, blocked = 0;
+			for (int i=0, digits=side; i<rayLength; i++, digits /= 3) {
+				if (digits % 3 == 1) mine |= 1 << i;
+				if (digits % 3 == 2) blocked |= 1 << i;
+			}
+			sides[side] = countOneWay(mine, blocked);
+		}
+		for (int front=0; front<sideSize; front++)
+			for (int back=0; back<sideSize; back++)
+				scores[back + sideSize * front] = countLinearScore(sides[back], sides[front]);
+	}
+
+	/**
+	 * Get the table of a winning condition, it's built on the first call
+	 *
+	 * @param winLength how many stones in a row to win, from 2 to 7
+	 * @return the shared table
+	 */
+	public static synchronized PatternTable forWinLength(int winLength) {
+		if (winLength < 2 || winLength > 7)
+			throw new IllegalArgumentException("PatternTable supports winLength in [2, 7], got " + winLength);
+		if (TABLES[winLength] == null)
+			TABLES[winLength] = new PatternTable(winLength);
+		return TABLES[winLength];
+	}
+
+	/**
+	 * Look up the score of a line. Rays start next to the position, bit k stands for the cell k+1 cells away.
+	 *
+	 * @param mineBack		the player's stones toward the lower bits of the line
+	 * @param blockedBack	the blocked cells toward the lower bits of the line
+	 * @param mineFront		the player's stones toward the higher bits of the line
+	 * @param blockedFront	the blocked cells toward the higher bits of the line
+	 * @return the score of the position on the line
+	 */
+	public int score(long mineBack, long blockedBack, long mineFront, long blockedFront) {
+		int back = base3[(int) mineBack & rayMask] + 2 * base3[(int) blockedBack & rayMask];
+		int front = base3[(int) mineFront & rayMask] + 2 * base3[(int) blockedFront & rayMask];
+		return scores[back + sideSize * front];
+	}
+
+	private static int pow3(int n) {
+		int pow = 1;
+		for (int i=0; i<n; i++)
+			pow *= 3;
+		return pow;
+	}
+
+	/*
+	 * Count the stones of player along one way from the position
+	 */
+	private OneWayCount countOneWay(int mine, int blocked) {
+		OneWayCount owc = new OneWayCount();
+
+		for (int i=0; i < rayLength; i++) {
+			if ((blocked >>> i & 1) != 0) {
+				owc.block++;
+				break;
+			} else if ((mine >>> i & 1) == 0) { //an empty cell
+				if (owc.spacePosition == 0 && (mine >>> (i+1) & 1) != 0) {
+					owc.spacePosition = owc.count;
+					continue;
+				} else {
+					break;
+				}
+			} else { //the player's stone
+				if (owc.spacePosition == 0) {
+					owc.count++;
+				} else {
+					owc.countAfterSpace++;
+				}
+			}
+		}
+
+		return owc;
+	}
+
+	private int countLinearScore(OneWayCount owcFront, OneWayCount owcBack) {
+		OneWayCount owc = new OneWayCount();
+		owc.count = owcFront.count + owcBack.count - 1;
+		owc.block = owcFront.block + owcBack.block;
+
+		if (owcFront.countAfterSpace >= owcBack.countAfterSpace) {
+			owc.spacePosition = owcFront.countAfterSpace;
+			owc.countAfterSpace = owcFront.countAfterSpace;
+		} else {
+			owc.spacePosition = owc.count;
+			owc.countAfterSpace= owcBack.countAfterSpace;
+		}
+
+		return countToScore(owc);
+	}
+
+	private int countToScore(OneWayCount owc) {
+		if (owc.count >= winLength) return Score.FIVE.val();
+		if (owc.count >= winLength - 1 && owc.block == 0) return Score.FOUR.val();
+		int count = owc.count + owc.countAfterSpace;
+		if (count >= winLength - 1 && owc.block != 2) return Score.HALF_OPEN_FOUR.val();
+
+		if (owc.block == 0) {
+			switch (count) {
+			case 3: return owc.spacePosition == 0 ? Score.THREE.val() : Score.THREE.val() - Score.ONE.val();
+			case 2: return owc.spacePosition == 0 ? Score.TWO.val() : Score.TWO.val() - Score.ONE.val();
+			case 1: return Score.ONE.val();
+			}
+		} else if (owc.block == 1) {
+			switch (count) {
+			case 3: return owc.spacePosition == 0 ? Score.HALF_OPEN_THREE.val() : Score.HALF_OPEN_THREE.val() - Score.ONE.val();
+			case 2: return owc.spacePosition == 0 ? Score.HALF_OPEN_TWO.val() : Score.HALF_OPEN_TWO.val() - Score.ONE.val();
+			case 1: return Score.HALF_OPEN_ONE.val();
+			}
+		}
+		//owc.block > 1 && count < winLength
+		return Score.BLOCKED.val();
+	}
+
+	private static class OneWayCount {
+		int count;
+		int countAfterSpace;
+		int block;
+		int spacePosition;
+
+		public OneWayCount() {
+			count = 1;
+			countAfterSpace = 0;
+			block = 0;
+			spacePosition = 0;
+		}
+	}
+}
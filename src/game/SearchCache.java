@@ -0,0 +1,252 @@
+/**
+ * SearchCache.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A search result cache in a memory-mapped file, so the results of completed searches survive across games and
+ * process restarts. Like the TranspositionTable it is a fixed-size table of packed entries, keyed here by the
+ * canonical hash of the position (see Symmetry), with the best move stored on the canonical board.
+ *
+ * Slots come in buckets of two. A new result replaces the entry of the same position if it's at least as deep,
+ * otherwise it evicts the entry of the bucket written by an older session, then the shallower one. The session
+ * counter in the header is bumped each time the file is opened.
+ *
+ * Each slot holds the hash xor the data next to the data, written and read as single 64-bit words, so a slot
+ * torn by a concurrent writer never verifies. Several AIs and threads, and even several processes mapping the
+ * same file, may share a cache without locks.
+ *
+ * The file is a 64 byte header: magic, version, board size, win length, size bits, session, and the Zobrist key
+ * of a stone as a check the hashes match; then 2^sizeBits slots of 16 bytes.
+ */
+public class SearchCache {
+	public final static int DEF_SIZE_BITS = 20;		//2^20 slots, 16MB by default
+	public final static int MAX_SIZE_BITS = 26;		//2^26 slots, 1GB, the most a single mapping and int offsets hold
+	private static final int MAGIC = 0x474D4B43;	//"GMKC"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 64;
+	private static final int SLOT_BYTES = 16;
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private final MappedByteBuffer buffer;
+	private final int boardSize;
+	private final int winLength;
+	private final int mask;
+	private final int session;
+	private long hits;
+	private long misses;
+
+	private SearchCache(MappedByteBuffer buffer, int sizeBits) {
+		this.buffer = buffer;
+		this.boardSize = buffer.getInt(8);
+		this.winLength = buffer.getInt(12);
+		this.mask = (1 << sizeBits) - 1;
+		this.session = buffer.getInt(20) & 0xFF;
+	}
+
+	/**
+	 * Open a cache file, creating it if it doesn't exist. An existing file keeps its own size.
+	 *
+	 * @param path		the cache file
+	 * @param boardSize	how many rows or columns on the board
+	 * @param winLength	winning condition: how many stone in a line
+	 * @param sizeBits	a new file holds 2^sizeBits slots, from 1 to 26
+	 * @return the cache
+	 * @throws IOException if the file can't be read or written
+	 */
+	public static SearchCache open(Path path, int boardSize, int winLength, int sizeBits) throws IOException {
+		if (sizeBits < 1 || sizeBits > MAX_SIZE_BITS)
+			throw new IllegalArgumentException("sizeBits should be in [1, " + MAX_SIZE_BITS + "], got " + sizeBits);
+		long keyCheck = new Zobrist(boardSize, boardSize).key(Gomoku.PLAYER1, 0, 0);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			boolean created = channel.size() == 0;
+			if (!created) {
+				MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_BYTES));
+				if (header.limit() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+						|| header.getInt(16) < 1 || header.getInt(16) > MAX_SIZE_BITS)
+					throw new IllegalArgumentException(path + " is not a search cache");
+				if (header.getInt(8) != boardSize || header.getInt(12) != winLength || header.getLong(24) != keyCheck)
+					throw new IllegalArgumentException(path + " caches another board or win length");
+				sizeBits = header.getInt(16);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					HEADER_BYTES + ((long) SLOT_BYTES << sizeBits));
+			if (created) {
+				buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, boardSize).putInt(12, winLength);
+				buffer.putInt(16, sizeBits).putLong(24, keyCheck);
+			}
+			buffer.putInt(20, buffer.getInt(20) + 1);
+			return new SearchCache(buffer, sizeBits);
+		}
+	}
+
+	/**
+	 * Look up a position
+	 *
+	 * @param hash the canonical hash of the position
+	 * @return the packed entry, or 0 if the position is not in the cache
+	 */
+	public long probe(long hash) {
+		int bucket = bucket(hash);
+		for (int slot=bucket; slot<bucket+2; slot++) {
+			long data = data(slot);
+			if (data != 0 && (key(slot) ^ data) == hash) {
+				hits++;
+				return data;
+			}
+		}
+		misses++;
+		return 0;
+	}
+
+	/**
+	 * Store the result of a completed search
+	 *
+	 * @param hash	the canonical hash of the position
+	 * @param depth	how many plies the position was searched
+	 * @param score	the exact score found
+	 * @param move	the best move on the canonical board, packed as row * boardSize + col
+	 */
+	public void store(long hash, int depth, int score, int move) {
+		int bucket = bucket(hash);
+		int victim = bucket;
+		int victimRank = Integer.MAX_VALUE;
+		for (int slot=bucket; slot<bucket+2; slot++) {
+			long data = data(slot);
+			if (data != 0 && (key(slot) ^ data) == hash) {
+				if (depth(data) > depth)
+					return;
+				victim = slot;
+				break;
+			}
+			//Evict entries of older sessions first, then shallower ones
+			int rank = data == 0 ? -1 : depth(data) + (session(data) == session ? 256 : 0);
+			if (rank < victimRank) {
+				victimRank = rank;
+				victim = slot;
+			}
+		}
+		long data = (score & 0xFFFFFFFFL)
+				| ((long) ((move + 1) & 0xFFFF) << 32)
+				| ((long) (depth & 0xFF) << 48)
+				| ((long) session << 56);
+		int offset = HEADER_BYTES + victim * SLOT_BYTES;
+		LONGS.setOpaque(buffer, offset, hash ^ data);
+		LONGS.setOpaque(buffer, offset + 8, data);
+	}
+
+	/**
+	 * Write the changes back to the file now, the operating system does it eventually anyway
+	 */
+	public void flush() {
+		buffer.force();
+	}
+
+	/**
+	 * Get the score of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return the score
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Get the best move of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return the move on the canonical board, packed as row * boardSize + col
+	 */
+	public static int move(long entry) {
+		return (int) ((entry >>> 32) & 0xFFFF) - 1;
+	}
+
+	/**
+	 * Get the depth of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return how many plies the position was searched
+	 */
+	public static int depth(long entry) {
+		return (int) ((entry >>> 48) & 0xFF);
+	}
+
+	private static int session(long entry) {
+		return (int) (entry >>> 56);
+	}
+
+	private long key(int slot) {
+		return (long) LONGS.getOpaque(buffer, HEADER_BYTES + slot * SLOT_BYTES);
+	}
+
+	private long data(int slot) {
+		return (long) LONGS.getOpaque(buffer, HEADER_BYTES + slot * SLOT_BYTES + 8);
+	}
+
+	private int bucket(long hash) {
+		return (int) (hash ^ (hash >>> 32)) & mask & ~1;
+	}
+
+	/**
+	 * Get how many rows or columns the board of the cached positions has
+	 *
+	 * @return board size
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/**
+	 * Get the winning condition of the cached positions
+	 *
+	 * @return how many stones in a line win
+	 */
+	public int getWinLength() {
+		return winLength;
+	}
+
+	/**
+	 * Get how many probes found their position
+	 *
+	 * @return hit count, approximate when threads share the cache
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get how many probes didn't find their position
+	 *
+	 * @return miss count, approximate when threads share the cache
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of entries the cache can hold
+	 *
+	 * @return cache capacity
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	@Override
+	public String toString() {
+		return "SearchCache[" + (mask + 1) + "]: hits=" + hits + ", misses=" + misses;
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * SearchListener.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * A callback receiving the statistics of every search an AI runs. It is called on the thread that asked for
+ * the move, after the search and before the move is returned, so it should be quick.
+ */
+public interface SearchListener {
+	/**
+	 * Called when a search finished
+	 *
+	 * @param stats the statistics of the search
+	 */
+	void searchFinished(SearchStats stats);
+}
@@ -0,0 +1,177 @@
+/**
+ * SearchMetrics.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A SearchListener collecting the statistics of an AI's searches and publishing them over JMX, for example:
+ *
+ * <pre>
+ * SearchMetrics metrics = new SearchMetrics();
+ * ai.addSearchListener(metrics);
+ * metrics.register("white");	//visible in JConsole as game:type=SearchMetrics,name=white
+ * </pre>
+ */
+public class SearchMetrics implements SearchListener, SearchMetricsMXBean {
+	private static final SearchStats NONE = new SearchStats(null, 0, 0, 0, 0, 0, 0, 0, 0, 0, new long[0], 0, 0, 0, 0);
+	private volatile SearchStats last = NONE;
+	private long searches;
+	private long totalNodes;
+	private long totalElapsedNanos;
+	private ObjectName objectName;
+
+	@Override
+	public synchronized void searchFinished(SearchStats stats) {
+		last = stats;
+		searches++;
+		totalNodes += stats.getNodes();
+		totalElapsedNanos += stats.getElapsedNanos();
+	}
+
+	/**
+	 * Register this as an MBean of the platform MBean server
+	 *
+	 * @param name the name key of the ObjectName game:type=SearchMetrics,name=...
+	 */
+	public synchronized void register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("game:type=SearchMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException e) {
+			throw new RuntimeException("Can't register the search metrics " + name, e);
+		}
+	}
+
+	/**
+	 * Unregister this from the platform MBean server, if it's registered
+	 */
+	public synchronized void unregister() {
+		if (objectName == null)
+			return;
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName))
+				server.unregisterMBean(objectName);
+			objectName = null;
+		} catch (JMException e) {
+			throw new RuntimeException("Can't unregister the search metrics " + objectName, e);
+		}
+	}
+
+	/**
+	 * Get the statistics of the last search
+	 *
+	 * @return the last statistics, all zero before the first search
+	 */
+	public SearchStats getLast() {
+		return last;
+	}
+
+	@Override
+	public synchronized long getSearches() {
+		return searches;
+	}
+
+	@Override
+	public synchronized long getTotalNodes() {
+		return totalNodes;
+	}
+
+	@Override
+	public synchronized long getTotalElapsedMillis() {
+		return totalElapsedNanos / 1000000;
+	}
+
+	@Override
+	public synchronized double getAverageNodesPerSecond() {
+		return totalElapsedNanos == 0 ? 0 : totalNodes * 1e9 / totalElapsedNanos;
+	}
+
+	@Override
+	public long getLastNodes() {
+		return last.getNodes();
+	}
+
+	@Override
+	public long getLastEvaluations() {
+		return last.getEvaluations();
+	}
+
+	@Override
+	public long getLastQuiescenceNodes() {
+		return last.getQuiescenceNodes();
+	}
+
+	@Override
+	public long getLastReductions() {
+		return last.getReductions();
+	}
+
+	@Override
+	public long getLastResearches() {
+		return last.getResearches();
+	}
+
+	@Override
+	public long getLastFutilityPrunes() {
+		return last.getFutilityPrunes();
+	}
+
+	@Override
+	public double getLastNodesPerSecond() {
+		return last.getNodesPerSecond();
+	}
+
+	@Override
+	public double getLastEffectiveBranchingFactor() {
+		return last.getEffectiveBranchingFactor();
+	}
+
+	@Override
+	public int getLastDepth() {
+		return last.getDepth();
+	}
+
+	@Override
+	public int getLastMaxPly() {
+		return last.getMaxPly();
+	}
+
+	@Override
+	public long[] getLastCutoffs() {
+		return last.getCutoffs();
+	}
+
+	@Override
+	public long getLastTtHits() {
+		return last.getTtHits();
+	}
+
+	@Override
+	public long getLastTtMisses() {
+		return last.getTtMisses();
+	}
+
+	@Override
+	public double getLastElapsedMillis() {
+		return last.getElapsedNanos() / 1e6;
+	}
+
+	@Override
+	public synchronized void reset() {
+		last = NONE;
+		searches = 0;
+		totalNodes = 0;
+		totalElapsedNanos = 0;
+	}
+}
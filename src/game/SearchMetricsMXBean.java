@@ -0,0 +1,50 @@
+/**
+ * SearchMetricsMXBean.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * The JMX view of SearchMetrics: totals over all searches and the statistics of the last one
+ */
+public interface SearchMetricsMXBean {
+	long getSearches();
+
+	long getTotalNodes();
+
+	long getTotalElapsedMillis();
+
+	double getAverageNodesPerSecond();
+
+	long getLastNodes();
+
+	long getLastEvaluations();
+
+	long getLastQuiescenceNodes();
+
+	long getLastReductions();
+
+	long getLastResearches();
+
+	long getLastFutilityPrunes();
+
+	double getLastNodesPerSecond();
+
+	double getLastEffectiveBranchingFactor();
+
+	int getLastDepth();
+
+	int getLastMaxPly();
+
+	long[] getLastCutoffs();
+
+	long getLastTtHits();
+
+	long getLastTtMisses();
+
+	double getLastElapsedMillis();
+
+	void reset();
+}
@@ -0,0 +1,23 @@
+/**
+ * SearchProgress.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * A callback receiving the progress of a move requested with AI.requestMove(). It is called on the searching
+ * thread after every completed iteration of the search, so it should be quick and hand the update over to the
+ * thread that shows it.
+ */
+public interface SearchProgress {
+	/**
+	 * Called when an iteration of the search completed
+	 *
+	 * @param bestMove	the best move found so far
+	 * @param depth		how many plies the iteration searched
+	 * @param score		the score of the best move, positive favors PLAYER2
+	 */
+	void iterationFinished(Move bestMove, int depth, int score);
+}
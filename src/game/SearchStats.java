@@ -0,0 +1,245 @@
+/**
+ * SearchStats.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The statistics of one AI search, a snapshot handed to the SearchListeners. Node counts include the helper
+ * threads of a multi-threaded search, the other counters are the main thread's.
+ */
+public class SearchStats {
+	private final Move move;
+	private final int score;
+	private final int depth;
+	private final int maxPly;
+	private final long nodes;
+	private final long evaluations;
+	private final long quiescenceNodes;
+	private final long reductions;
+	private final long researches;
+	private final long futilityPrunes;
+	private final long[] cutoffs;
+	private final long ttHits;
+	private final long ttMisses;
+	private final long ttCollisions;
+	private final long elapsedNanos;
+
+	/**
+	 * Constructor
+	 *
+	 * @param move			the chosen move
+	 * @param score			the score of the move, positive is good for player2
+	 * @param depth			the depth of the deepest completed iteration
+	 * @param maxPly		the deepest ply the search visited
+	 * @param nodes			how many nodes were searched
+	 * @param evaluations	how many leaves were evaluated
+	 * @param quiescenceNodes	how many of the nodes the quiescence search visited past the leaves
+	 * @param reductions	how many late moves were searched at a reduced depth
+	 * @param researches	how many of the reduced moves were searched again at full depth
+	 * @param futilityPrunes	how many quiet moves were skipped as futile
+	 * @param cutoffs		cutoffs[ply]: how many alpha-beta cut-offs happened at the ply
+	 * @param ttHits		how many transposition table probes found their position
+	 * @param ttMisses		how many transposition table probes missed
+	 * @param ttCollisions	how many of the misses found another position in the slot
+	 * @param elapsedNanos	how long the search took
+	 */
+	public SearchStats(Move move, int score, int depth, int maxPly, long nodes, long evaluations,
+			long quiescenceNodes, long reductions, long researches, long futilityPrunes, long[] cutoffs,
+			long ttHits, long ttMisses, long ttCollisions, long elapsedNanos) {
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.maxPly = maxPly;
+		this.nodes = nodes;
+		this.evaluations = evaluations;
+		this.quiescenceNodes = quiescenceNodes;
+		this.reductions = reductions;
+		this.researches = researches;
+		this.futilityPrunes = futilityPrunes;
+		this.cutoffs = cutoffs;
+		this.ttHits = ttHits;
+		this.ttMisses = ttMisses;
+		this.ttCollisions = ttCollisions;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Get the move the search chose
+	 *
+	 * @return the move
+	 */
+	public Move getMove() {
+		return move;
+	}
+
+	/**
+	 * Get the score of the move, positive is good for player2
+	 *
+	 * @return the score
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Get the depth of the deepest completed iteration
+	 *
+	 * @return depth in plies
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Get the deepest ply the search visited
+	 *
+	 * @return the ply
+	 */
+	public int getMaxPly() {
+		return maxPly;
+	}
+
+	/**
+	 * Get how many nodes were searched, helper threads included
+	 *
+	 * @return node count
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Get how many leaves were evaluated
+	 *
+	 * @return evaluation count
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Get how many of the nodes the quiescence search visited past the leaves
+	 *
+	 * @return node count
+	 */
+	public long getQuiescenceNodes() {
+		return quiescenceNodes;
+	}
+
+	/**
+	 * Get how many late moves were searched at a reduced depth
+	 *
+	 * @return reduction count
+	 */
+	public long getReductions() {
+		return reductions;
+	}
+
+	/**
+	 * Get how many of the reduced moves were searched again at full depth
+	 *
+	 * @return re-search count
+	 */
+	public long getResearches() {
+		return researches;
+	}
+
+	/**
+	 * Get how many quiet moves were skipped as futile
+	 *
+	 * @return pruned move count
+	 */
+	public long getFutilityPrunes() {
+		return futilityPrunes;
+	}
+
+	/**
+	 * Get the alpha-beta cut-offs of every ply
+	 *
+	 * @return a copy of the counts, indexed by ply
+	 */
+	public long[] getCutoffs() {
+		return cutoffs.clone();
+	}
+
+	/**
+	 * Get the alpha-beta cut-offs of all plies
+	 *
+	 * @return the total count
+	 */
+	public long getTotalCutoffs() {
+		long total = 0;
+		for (long count : cutoffs)
+			total += count;
+		return total;
+	}
+
+	/**
+	 * Get how many transposition table probes found their position
+	 *
+	 * @return hit count
+	 */
+	public long getTtHits() {
+		return ttHits;
+	}
+
+	/**
+	 * Get how many transposition table probes missed
+	 *
+	 * @return miss count
+	 */
+	public long getTtMisses() {
+		return ttMisses;
+	}
+
+	/**
+	 * Get how many of the misses found another position in the slot
+	 *
+	 * @return collision count
+	 */
+	public long getTtCollisions() {
+		return ttCollisions;
+	}
+
+	/**
+	 * Get how long the search took
+	 *
+	 * @return elapsed time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Get the search speed
+	 *
+	 * @return nodes per second
+	 */
+	public double getNodesPerSecond() {
+		return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Get the effective branching factor, the b with b^depth = nodes
+	 *
+	 * @return the branching factor, 0 if no iteration completed
+	 */
+	public double getEffectiveBranchingFactor() {
+		return depth == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("move=%s score=%d depth=%d maxPly=%d nodes=%d evaluations=%d quiescence=%d "
+				+ "lmr(reductions=%d researches=%d) futile=%d nps=%.0f ebf=%.2f "
+				+ "tt(hits=%d misses=%d collisions=%d) ms=%.1f cutoffs=%s",
+				move, score, depth, maxPly, nodes, evaluations, quiescenceNodes, reductions, researches, futilityPrunes,
+				getNodesPerSecond(), getEffectiveBranchingFactor(),
+				ttHits, ttMisses, ttCollisions, elapsedNanos / 1e6, Arrays.toString(cutoffs));
+	}
+}
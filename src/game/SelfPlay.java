@@ -0,0 +1,485 @@
+/**
+ * SelfPlay.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A headless runner of AI-vs-AI matches. Games start from random openings near the center and run in parallel,
+ * each opening is played twice with the colors swapped. Usage:
+ *
+ * <pre>
+ * java -cp gomoku.jar game.SelfPlay games=1000 parallel=8 a=depth:6 b=time:50 csv=games.csv json=summary.json
+ * </pre>
+ *
+ * Other options: size (board size), win (win length), opening (random moves, at least 3), seed, records (a file the
+ * games are added to as game records, see GameRecordWriter).
+ */
+public class SelfPlay {
+	public final static int A_WON = 1;		//game winner: player A
+	public final static int B_WON = 2;		//game winner: player B
+	public final static int DRAW = 0;		//game winner: nobody
+	private final static int OPENING_RADIUS = 2;	//random opening moves are this close to the center
+
+	/**
+	 * How an AI player of the match searches
+	 */
+	public static class Player {
+		private final int depth;			//fixed search depth, used when budget is null
+		private final Duration budget;		//time budget per move
+		private final int tableBits;		//the transposition table holds 2^tableBits entries
+		private final int quiescence;		//node budget of the quiescence search, -1 for the AI's default
+		private final int width;			//candidates of a quiet node, -1 for the AI's default
+		private final int lmrMoves;			//moves searched at full depth before reducing, -1 for the AI's default
+		private final int lmrPlies;			//plies a late quiet move is reduced by, -1 for the AI's default
+		private final int futility;			//futility margin per ply, -1 for the AI's default
+
+		private Player(int depth, Duration budget, int tableBits, int quiescence, int width, int lmrMoves,
+				int lmrPlies, int futility) {
+			this.depth = depth;
+			this.budget = budget;
+			this.tableBits = tableBits;
+			this.quiescence = quiescence;
+			this.width = width;
+			this.lmrMoves = lmrMoves;
+			this.lmrPlies = lmrPlies;
+			this.futility = futility;
+		}
+
+		/**
+		 * A player searching to a fixed depth
+		 *
+		 * @param depth how many plies to search
+		 * @return the player
+		 */
+		public static Player depth(int depth) {
+			return new Player(depth, null, 16, -1, -1, -1, -1, -1);
+		}
+
+		/**
+		 * A player searching within a time budget per move
+		 *
+		 * @param budget how long each move may take
+		 * @return the player
+		 */
+		public static Player time(Duration budget) {
+			return new Player(0, budget, 16, -1, -1, -1, -1, -1);
+		}
+
+		/**
+		 * The same player with another quiescence budget, see AI.setQuiescenceBudget()
+		 *
+		 * @param maxNodes how many nodes the quiescence search may visit past each leaf, 0 for none
+		 * @return the player
+		 */
+		public Player quiescence(int maxNodes) {
+			if (maxNodes < 0)
+				throw new IllegalArgumentException("maxNodes should not be negative, got " + maxNodes);
+			return new Player(depth, budget, tableBits, maxNodes, width, lmrMoves, lmrPlies, futility);
+		}
+
+		/**
+		 * The same player with another quiet node width, see AI.setChildrenLimit()
+		 *
+		 * @param width how many moves a quiet node searches at most
+		 * @return the player
+		 */
+		public Player width(int width) {
+			if (width < 1)
+				throw new IllegalArgumentException("width should be positive, got " + width);
+			return new Player(depth, budget, tableBits, quiescence, width, lmrMoves, lmrPlies, futility);
+		}
+
+		/**
+		 * The same player with other late-move reductions, see AI.setLateMoveReductions()
+		 *
+		 * @param fullMoves	how many moves of a node are searched at full depth before reducing
+		 * @param plies		how many plies a late quiet move is reduced by, 0 for none
+		 * @return the player
+		 */
+		public Player lateMoveReductions(int fullMoves, int plies) {
+			if (fullMoves < 1)
+				throw new IllegalArgumentException("fullMoves should be positive, got " + fullMoves);
+			if (plies < 0)
+				throw new IllegalArgumentException("plies should not be negative, got " + plies);
+			return new Player(depth, budget, tableBits, quiescence, width, fullMoves, plies, futility);
+		}
+
+		/**
+		 * The same player with another futility margin, see AI.setFutilityMargin()
+		 *
+		 * @param margin most a quiet move is expected to gain per ply, 0 for no pruning
+		 * @return the player
+		 */
+		public Player futility(int margin) {
+			if (margin < 0)
+				throw new IllegalArgumentException("margin should not be negative, got " + margin);
+			return new Player(depth, budget, tableBits, quiescence, width, lmrMoves, lmrPlies, margin);
+		}
+
+		/**
+		 * Parse a player from "depth:N" or "time:MILLIS", optionally followed by any of ",quiescence:NODES",
+		 * ",width:N", ",lmr:FULL_MOVES/PLIES" and ",futility:MARGIN"
+		 *
+		 * @param spec the player description
+		 * @return the player
+		 */
+		public static Player parse(String spec) {
+			String[] options = spec.split(",");
+			String[] parts = options[0].split(":");
+			Player player;
+			if (parts.length == 2 && parts[0].equals("depth"))
+				player = depth(Integer.parseInt(parts[1]));
+			else if (parts.length == 2 && parts[0].equals("time"))
+				player = time(Duration.ofMillis(Long.parseLong(parts[1])));
+			else
+				throw new IllegalArgumentException("Player should be depth:N or time:MILLIS, got " + spec);
+			for (int i=1; i<options.length; i++) {
+				String[] option = options[i].split(":");
+				if (option.length == 2 && option[0].equals("quiescence"))
+					player = player.quiescence(Integer.parseInt(option[1]));
+				else if (option.length == 2 && option[0].equals("width"))
+					player = player.width(Integer.parseInt(option[1]));
+				else if (option.length == 2 && option[0].equals("lmr") && option[1].contains("/"))
+					player = player.lateMoveReductions(Integer.parseInt(option[1].substring(0, option[1].indexOf('/'))),
+							Integer.parseInt(option[1].substring(option[1].indexOf('/') + 1)));
+				else if (option.length == 2 && option[0].equals("futility"))
+					player = player.futility(Integer.parseInt(option[1]));
+				else
+					throw new IllegalArgumentException("Unknown player option " + options[i]);
+			}
+			return player;
+		}
+
+		private AI create(Gomoku gomoku) {
+			AI ai = new AI(gomoku, new TranspositionTable(tableBits, TranspositionTable.Replacement.DEPTH_PREFERRED));
+			configure(ai);
+			return ai;
+		}
+
+		void configure(AI ai) {
+			ai.setQuiescenceBudget(quiescence >= 0 ? quiescence : AI.QUIESCENCE_NODES);
+			ai.setChildrenLimit(width >= 0 ? width : AI.CHILDREN_LIMIT);
+			ai.setLateMoveReductions(lmrMoves >= 0 ? lmrMoves : AI.LMR_MOVES, lmrPlies >= 0 ? lmrPlies : AI.LMR_PLIES);
+			ai.setFutilityMargin(futility >= 0 ? futility : AI.FUTILITY_MARGIN);
+		}
+
+		Move move(AI ai) {
+			return budget == null ? ai.nextMove(depth) : ai.nextMove(budget);
+		}
+
+		@Override
+		public String toString() {
+			return (budget == null ? "depth:" + depth : "time:" + budget.toMillis())
+					+ (quiescence >= 0 ? ",quiescence:" + quiescence : "")
+					+ (width >= 0 ? ",width:" + width : "")
+					+ (lmrMoves >= 0 ? ",lmr:" + lmrMoves + "/" + lmrPlies : "")
+					+ (futility >= 0 ? ",futility:" + futility : "");
+		}
+	}
+
+	/**
+	 * The record of one finished game
+	 */
+	public static class GameResult {
+		private final int game;
+		private final boolean aIsBlack;
+		private final int winner;
+		private final int plies;
+		private final long millis;
+		private final long nodesA;
+		private final int movesA;
+		private final long nodesB;
+		private final int movesB;
+		private final String opening;
+		private final String moves;
+		private final GameRecord record;
+
+		private GameResult(int game, boolean aIsBlack, int winner, int plies, long millis,
+				long nodesA, int movesA, long nodesB, int movesB, String opening, String moves, GameRecord record) {
+			this.game = game;
+			this.aIsBlack = aIsBlack;
+			this.winner = winner;
+			this.plies = plies;
+			this.millis = millis;
+			this.nodesA = nodesA;
+			this.movesA = movesA;
+			this.nodesB = nodesB;
+			this.movesB = movesB;
+			this.opening = opening;
+			this.moves = moves;
+			this.record = record;
+		}
+
+		/**
+		 * Get the winner
+		 *
+		 * @return A_WON, B_WON or DRAW
+		 */
+		public int getWinner() {
+			return winner;
+		}
+
+		/**
+		 * Get the moves and result of the game
+		 *
+		 * @return the game record
+		 */
+		public GameRecord getRecord() {
+			return record;
+		}
+
+		/**
+		 * Get the game as a CSV row, matching CSV_HEADER
+		 *
+		 * @return the CSV row
+		 */
+		public String toCsv() {
+			return game + "," + (aIsBlack ? "A" : "B") + "," + (winner == A_WON ? "A" : winner == B_WON ? "B" : "draw")
+					+ "," + plies + "," + millis + "," + nodesA + "," + movesA + "," + nodesB + "," + movesB + "," + opening
+					+ "," + moves;
+		}
+	}
+
+	/**
+	 * The header of the CSV written by writeCsv()
+	 */
+	public static final String CSV_HEADER = "game,black,winner,plies,millis,nodesA,movesA,nodesB,movesB,opening,moves";
+
+	private final Player playerA;
+	private final Player playerB;
+	private final int boardSize;
+	private final int winLength;
+	private final int openingMoves;
+	private final long seed;
+
+	/**
+	 * Constructor
+	 *
+	 * @param playerA		the first player
+	 * @param playerB		the second player
+	 * @param boardSize		how many rows or columns on the board
+	 * @param winLength		winning condition: how many stone in a line
+	 * @param openingMoves	how many random moves start each game, at least 3, no more than the cells near the center
+	 *						and fewer than the 2 * winLength - 1 moves that can win a game
+	 * @param seed			seed of the random openings
+	 */
+	public SelfPlay(Player playerA, Player playerB, int boardSize, int winLength, int openingMoves, long seed) {
+		//AI.openingMove() places its own stones during the first 3 moves, it expects an untouched center
+		if (openingMoves < 3)
+			throw new IllegalArgumentException("openingMoves should be at least 3, got " + openingMoves);
+		//The random moves fall within OPENING_RADIUS of the center, and mustn't be able to decide the game
+		int reach = Math.min(boardSize, boardSize / 2 + OPENING_RADIUS + 1) - Math.max(0, boardSize / 2 - OPENING_RADIUS);
+		int maxOpening = Math.min(reach * reach, 2 * winLength - 2);
+		if (openingMoves > maxOpening)
+			throw new IllegalArgumentException("openingMoves should be at most " + maxOpening + " on a " + boardSize
+					+ "x" + boardSize + " board with " + winLength + " in a row, got " + openingMoves);
+		this.playerA = playerA;
+		this.playerB = playerB;
+		this.boardSize = boardSize;
+		this.winLength = winLength;
+		this.openingMoves = openingMoves;
+		this.seed = seed;
+	}
+
+	/**
+	 * Play a match
+	 *
+	 * @param games			how many games to play
+	 * @param parallelism	how many games to play at the same time
+	 * @return the results in game order
+	 */
+	public List<GameResult> run(int games, int parallelism) {
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<GameResult>> futures = new ArrayList<>();
+			for (int i=0; i<games; i++) {
+				int game = i;
+				futures.add(pool.submit(() -> playGame(game)));
+			}
+			List<GameResult> results = new ArrayList<>();
+			for (Future<GameResult> future : futures)
+				results.add(future.get());
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Match interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Game failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Play one game of the match, games 2k and 2k+1 share an opening with the colors swapped
+	 *
+	 * @param game the game number
+	 * @return the result
+	 */
+	public GameResult playGame(int game) {
+		long start = System.nanoTime();
+		boolean aIsBlack = game % 2 == 0;
+		Gomoku gomoku = new Gomoku(boardSize, winLength, false, false);
+		Random random = new Random(seed + game / 2);
+		StringBuilder opening = new StringBuilder();
+		int center = boardSize / 2;
+		while (gomoku.getStep() <= openingMoves) {
+			int row = center - OPENING_RADIUS + random.nextInt(2 * OPENING_RADIUS + 1);
+			int col = center - OPENING_RADIUS + random.nextInt(2 * OPENING_RADIUS + 1);
+			if (gomoku.makeAMove(row, col))
+				opening.append(opening.length() == 0 ? "" : " ").append(row).append(':').append(col);
+			//An opening that ended the game is drawn again, both games of the pair draw the same one
+			if (gomoku.getStatus() != Gomoku.NOT_OVER) {
+				gomoku = new Gomoku(boardSize, winLength, false, false);
+				opening.setLength(0);
+			}
+		}
+
+		AI aiA = playerA.create(gomoku);
+		AI aiB = playerB.create(gomoku);
+		int movesA = 0, movesB = 0;
+		while (gomoku.getStatus() == Gomoku.NOT_OVER) {
+			boolean aToMove = (gomoku.getCurrent() == Gomoku.PLAYER1) == aIsBlack;
+			Move move = aToMove ? playerA.move(aiA) : playerB.move(aiB);
+			if (!gomoku.makeAMove(move.getRow(), move.getCol()))
+				throw new IllegalStateException("AI made an illegal move: " + move);
+			if (aToMove) movesA++;
+			else movesB++;
+		}
+
+		int winner = DRAW;
+		if (gomoku.getStatus() != Gomoku.GAME_DRAW)
+			winner = (gomoku.getStatus() == Gomoku.PLAYER1) == aIsBlack ? A_WON : B_WON;
+		StringBuilder moves = new StringBuilder();
+		for (Move move : gomoku.getMoves())
+			moves.append(moves.length() == 0 ? "" : " ").append(move.getRow()).append(':').append(move.getCol());
+		return new GameResult(game, aIsBlack, winner, gomoku.getStep() - 1, (System.nanoTime() - start) / 1000000,
+				aiA.getNodes(), movesA, aiB.getNodes(), movesB, opening.toString(), moves.toString(),
+				GameRecord.of(gomoku));
+	}
+
+	/**
+	 * Write the games as CSV
+	 *
+	 * @param results	the games
+	 * @param out		where to write
+	 */
+	public static void writeCsv(List<GameResult> results, PrintWriter out) {
+		out.println(CSV_HEADER);
+		for (GameResult result : results)
+			out.println(result.toCsv());
+		out.flush();
+	}
+
+	/**
+	 * Write the games as game records, see GameRecordWriter
+	 *
+	 * @param results	the games
+	 * @param out		where to write
+	 * @throws IOException if the records can't be written
+	 */
+	public static void writeRecords(List<GameResult> results, GameRecordWriter out) throws IOException {
+		for (GameResult result : results)
+			out.write(result.record);
+		out.flush();
+	}
+
+	/**
+	 * Summarize a match as JSON
+	 *
+	 * @param results	the games
+	 * @param seconds	the wall-clock time of the match
+	 * @return a JSON object of the win/draw rates, nodes per move and games per second
+	 */
+	public String summary(List<GameResult> results, double seconds) {
+		int winsA = 0, winsB = 0, draws = 0, blackWins = 0;
+		long nodesA = 0, nodesB = 0, movesA = 0, movesB = 0;
+		for (GameResult result : results) {
+			if (result.winner == A_WON) winsA++;
+			else if (result.winner == B_WON) winsB++;
+			else draws++;
+			if (result.winner != DRAW && (result.winner == A_WON) == result.aIsBlack) blackWins++;
+			nodesA += result.nodesA;
+			nodesB += result.nodesB;
+			movesA += result.movesA;
+			movesB += result.movesB;
+		}
+		int games = Math.max(1, results.size());
+		return String.format(Locale.ROOT, "{\"games\": %d, \"playerA\": \"%s\", \"playerB\": \"%s\", "
+				+ "\"winsA\": %d, \"winsB\": %d, \"draws\": %d, \"winRateA\": %.4f, \"winRateB\": %.4f, \"drawRate\": %.4f, "
+				+ "\"blackWinRate\": %.4f, \"avgNodesPerMoveA\": %.1f, \"avgNodesPerMoveB\": %.1f, \"gamesPerSecond\": %.3f}",
+				results.size(), playerA, playerB, winsA, winsB, draws,
+				(double) winsA / games, (double) winsB / games, (double) draws / games, (double) blackWins / games,
+				(double) nodesA / Math.max(1, movesA), (double) nodesB / Math.max(1, movesB), results.size() / seconds);
+	}
+
+	/**
+	 * Run a match from the command line, see the class comment for the options
+	 *
+	 * @param args key=value options
+	 * @throws IOException if the CSV, JSON or record file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		int games = 100, parallel = Runtime.getRuntime().availableProcessors();
+		int size = Gomoku.DEF_BOARD_SIZE, win = Gomoku.DEF_WIN_LENGTH, opening = 4;
+		long seed = 1;
+		Player a = Player.depth(6), b = Player.depth(6);
+		String csv = null, json = null, records = null;
+		for (String arg : args) {
+			int split = arg.indexOf('=');
+			if (split < 0)
+				throw new IllegalArgumentException("Options should be key=value, got " + arg);
+			String key = arg.substring(0, split);
+			String value = arg.substring(split + 1);
+			switch (key) {
+			case "games": games = Integer.parseInt(value); break;
+			case "parallel": parallel = Integer.parseInt(value); break;
+			case "size": size = Integer.parseInt(value); break;
+			case "win": win = Integer.parseInt(value); break;
+			case "opening": opening = Integer.parseInt(value); break;
+			case "seed": seed = Long.parseLong(value); break;
+			case "a": a = Player.parse(value); break;
+			case "b": b = Player.parse(value); break;
+			case "csv": csv = value; break;
+			case "json": json = value; break;
+			case "records": records = value; break;
+			default: throw new IllegalArgumentException("Unknown option " + key);
+			}
+		}
+
+		SelfPlay selfPlay = new SelfPlay(a, b, size, win, opening, seed);
+		long start = System.nanoTime();
+		List<GameResult> results = selfPlay.run(games, parallel);
+		String summary = selfPlay.summary(results, (System.nanoTime() - start) / 1e9);
+
+		if (csv != null)
+			try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(csv), StandardCharsets.UTF_8))) {
+				writeCsv(results, out);
+			}
+		if (records != null)
+			try (GameRecordWriter out = new GameRecordWriter(Paths.get(records), true)) {
+				writeRecords(results, out);
+			}
+		if (json != null)
+			Files.write(Paths.get(json), summary.getBytes(StandardCharsets.UTF_8));
+		System.out.println(summary);
+	}
+}
@@ -0,0 +1,717 @@
+/**
+ * SparseAI.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The AI's search on a SparseBoard, for boards larger than a BitBoard holds and for the unbounded board. It
+ * scores and orders moves like AI, with the same pattern scores, tiers and threat classes, but everything it
+ * keeps grows with the stones in play instead of the area: the scored cells are the cells sharing a line with
+ * a stone within winLength-1, held in dense slots found through a CellMap, and the threat classes are lists of
+ * slots. A stone only changes the pattern of the line it lies on for each of those cells, so a move rescores
+ * one line per cell, read from the board with a shift.
+ *
+ * It plays either along a Gomoku, catching up with its moves before every search, or on its own game through
+ * play() and undo(), which is the way to play on the unbounded board:
+ *
+ * <pre>
+ * SparseAI ai = new SparseAI(0, 5);
+ * ai.play(0, 0);
+ * Move reply = ai.nextMove(Duration.ofMillis(200));
+ * ai.play(reply.getRow(), reply.getCol());
+ * </pre>
+ *
+ * The threat solver, opening book, search cache, pondering and helper threads of AI are not supported.
+ */
+public class SparseAI {
+	private static final int MAX = 10 * Score.FIVE.val();
+	private static final int MIN = -MAX;
+	private static final int DEPTH = 10;
+	private static final int MAX_DEPTH = 32;			//deepest iteration of a time-budgeted search
+	private static final int MAX_PLY = MAX_DEPTH + 2;	//how many move buffers the search may need
+	private static final int CLOCK_CHECK_NODES = 256;	//how often the deadline is checked, in nodes
+	private static final int CHILDREN_LIMIT = 3;
+	private static final int TABLE_RADIUS = 127;		//best moves this close to the first stone are kept in the table
+	private static final int SLOT_BITS = 28;			//how many bits of a candidate key hold its slot
+	private static final int[] ROW_STEP = {0, 1, 1, 1};	//by BitBoard direction
+	private static final int[] COL_STEP = {1, 0, -1, 1};
+
+	private final Gomoku gomoku;	//the game to play along, null if the AI keeps its own
+	private final int boardSize;	//0 for the unbounded board
+	private final int winLength;
+	private final int reach;		//winLength - 1, how far a stone changes the scores along its lines
+	private final SparseBoard board;
+	private final PatternTable patterns;
+	private final TranspositionTable table;
+	private long hash;				//Zobrist hash of board, kept up to date by doMove() and retreat()
+
+	//The game: the moves played packed by CellMap.key(), black first
+	private long[] played = new long[64];
+	private int playedCount;
+	private int status = Gomoku.NOT_OVER;
+	private int originRow;			//the first stone, the table keeps best moves relative to it
+	private int originCol;
+
+	//Scored cells, in slots 0 to cellCount-1. A removed slot is filled with the last one.
+	private final CellMap slotOf = new CellMap(256);	//key(row, col) -> slot + 1
+	private int cellCount;
+	private long[] cellKey;			//cellKey[slot]: the cell, packed by CellMap.key()
+	private int[] nearStones;		//nearStones[slot]: how many stones share a line with the cell within reach
+	private int[] stone;			//stone[slot]: EMPTY, PLAYER1 or PLAYER2
+	private int[] lineScores;		//lineScores[slot * 8 + direction * 2 + player - 1]: score of the cell on a line
+	private int[][] scores;			//scores[player][slot]: the score of the cell for player, 0 if occupied
+	private int scoreTotal;			//sum of the player2 scores minus the player1 scores
+	private int[][][] classSlots;	//classSlots[player][class]: the slots whose score for player is in the class
+	private int[][] classSize;		//classSize[player][class]: how many slots the class holds
+	private int[][] classIndex;		//classIndex[player][slot]: where the slot is in its class, -1 if in none
+
+	//Search state, as in AI
+	private long[][] moveKeys;		//moveKeys[ply]: candidates packed as tier, score and slot for sorting
+	private long[][] moves;			//moves[ply]: the generated moves, packed by CellMap.key()
+	private int rootDepth;
+	private long deadline;
+	private boolean timed;
+	private boolean aborted;
+	private int clockCountdown;
+	private long pvMove;			//best root move of the last completed iteration, 0 if none
+	private long rootMove;			//best root move of the running iteration
+	private long nodes;
+
+	/**
+	 * Constructor, build an AI keeping its own game
+	 *
+	 * @param boardSize	how many rows or columns on the board, 0 for the unbounded board
+	 * @param winLength	winning condition: how many stone in a line
+	 */
+	public SparseAI(int boardSize, int winLength) {
+		this(null, boardSize, winLength, new TranspositionTable());
+	}
+
+	/**
+	 * Constructor, build an AI player of a game
+	 *
+	 * @param gomoku a gomoku game instance, of any board size
+	 */
+	public SparseAI(Gomoku gomoku) {
+		this(gomoku, gomoku.getGridNum(), gomoku.getWinLength(), new TranspositionTable());
+	}
+
+	/**
+	 * Constructor, build an AI player of a game with a given transposition table. The table should not be
+	 * shared with an AI, their hashes differ.
+	 *
+	 * @param gomoku a gomoku game instance, of any board size
+	 * @param table the transposition table for the search
+	 */
+	public SparseAI(Gomoku gomoku, TranspositionTable table) {
+		this(gomoku, gomoku.getGridNum(), gomoku.getWinLength(), table);
+	}
+
+	private SparseAI(Gomoku gomoku, int boardSize, int winLength, TranspositionTable table) {
+		this.gomoku = gomoku;
+		this.boardSize = boardSize;
+		this.winLength = winLength;
+		this.reach = winLength - 1;
+		this.board = new SparseBoard(boardSize);
+		this.patterns = PatternTable.forWinLength(winLength);
+		this.table = table;
+		this.cellKey = new long[256];
+		this.nearStones = new int[256];
+		this.stone = new int[256];
+		this.lineScores = new int[256 * 8];
+		this.scores = new int[Gomoku.PLAYER2 + 1][256];
+		this.classSlots = new int[Gomoku.PLAYER2 + 1][AI.CLASSES][16];
+		this.classSize = new int[Gomoku.PLAYER2 + 1][AI.CLASSES];
+		this.classIndex = new int[Gomoku.PLAYER2 + 1][256];
+		this.moveKeys = new long[MAX_PLY][];
+		this.moves = new long[MAX_PLY][];
+		sync();
+	}
+
+	/**
+	 * Play a move for the player to move
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return false if the move is illegal
+	 */
+	public boolean play(int row, int col) {
+		if (status != Gomoku.NOT_OVER || !board.isInside(row, col) || board.get(row, col) != Gomoku.EMPTY)
+			return false;
+		if (playedCount == 0) {
+			originRow = row;
+			originCol = col;
+		}
+		if (playedCount == played.length)
+			played = Arrays.copyOf(played, playedCount * 2);
+		long cell = CellMap.key(row, col);
+		played[playedCount++] = cell;
+		int role = playedCount % 2 == 1 ? Gomoku.PLAYER1 : Gomoku.PLAYER2;
+		doMove(cell, role);
+		if (board.isWin(row, col, winLength))
+			status = role;
+		else if (boardSize > 0 && playedCount == (long) boardSize * boardSize)
+			status = Gomoku.GAME_DRAW;
+		return true;
+	}
+
+	/**
+	 * Take back the last move
+	 *
+	 * @return false if no move was played
+	 */
+	public boolean undo() {
+		if (playedCount == 0)
+			return false;
+		playedCount--;
+		retreat(played[playedCount], playedCount % 2 == 0 ? Gomoku.PLAYER1 : Gomoku.PLAYER2);
+		status = Gomoku.NOT_OVER;
+		return true;
+	}
+
+	/*
+	 * Catch up with the game played along: take back the moves it no longer has, then play its new ones
+	 */
+	private void sync() {
+		if (gomoku == null)
+			return;
+		int[] cells = gomoku.snapshot();
+		int size = gomoku.getGridNum();
+		int common = 0;
+		while (common < playedCount && common < cells.length
+				&& played[common] == CellMap.key(cells[common] / size, cells[common] % size))
+			common++;
+		while (playedCount > common)
+			undo();
+		for (int i=common; i<cells.length; i++)
+			if (!play(cells[i] / size, cells[i] % size))
+				throw new IllegalStateException("Can't follow the move " + gomoku.getMove(i));
+	}
+
+	/**
+	 * Return the next move by AI base on the current positions on board
+	 *
+	 * @return the move in current AI's turn
+	 */
+	public Move nextMove() {
+		return nextMove(DEPTH, DEPTH, 0);
+	}
+
+	/**
+	 * Return the next move by AI searching to a given depth
+	 *
+	 * @param depth how many plies to search, from 1 to 32
+	 * @return the move in current AI's turn
+	 */
+	public Move nextMove(int depth) {
+		if (depth < 1 || depth > MAX_DEPTH)
+			throw new IllegalArgumentException("depth should be in [1, " + MAX_DEPTH + "], got " + depth);
+		return nextMove(depth, depth, 0);
+	}
+
+	/**
+	 * Return the next move by AI within a time budget, deepening iteratively like AI.nextMove(Duration)
+	 *
+	 * @param budget how long the search may take
+	 * @return the move in current AI's turn
+	 */
+	public Move nextMove(Duration budget) {
+		return nextMove(1, MAX_DEPTH, Math.max(1, budget.toNanos()));
+	}
+
+	/*
+	 * Search iteratively from minDepth to maxDepth, a positive budget in nanoseconds stops it at the deadline.
+	 * The move is not played, the AI catches up with it through play() or the game it plays along.
+	 */
+	Move nextMove(int minDepth, int maxDepth, long budget) {
+		sync();
+		if (status != Gomoku.NOT_OVER)
+			throw new IllegalStateException("The game is over");
+		int role = getCurrent();
+		if (playedCount == 0) {
+			int center = boardSize / 2;
+			return new Move(center, center, role, 1);
+		}
+
+		table.newSearch();
+		timed = budget > 0;
+		deadline = System.nanoTime() + budget;
+		aborted = false;
+		clockCountdown = CLOCK_CHECK_NODES;
+		pvMove = 0;
+		long lastCell = played[playedCount - 1];
+		long bestMove = 0;
+		for (rootDepth = minDepth; rootDepth <= maxDepth; rootDepth++) {
+			int score = negamax(lastCell, roleReversal(role), rootDepth, 0, MIN, MAX);
+			if (aborted) break;
+			bestMove = rootMove;
+			pvMove = rootMove;
+			//No need to look deeper once the game result is settled
+			if (score <= MIN+1 || score >= MAX-1) break;
+			if (timed && System.nanoTime() - deadline >= 0) break;
+		}
+		return new Move(CellMap.row(bestMove), CellMap.col(bestMove), role, playedCount + 1);
+	}
+
+	/*
+	 * Minimax algorithm with alpha beta pruning, AI.negamax() without the move ordering learnt from cut-offs
+	 */
+	private int negamax(long lastCell, int lastRole, int depth, int ply, int alpha, int beta) {
+		int role = roleReversal(lastRole);
+		nodes++;
+
+		//The base case
+		if (board.isWin(CellMap.row(lastCell), CellMap.col(lastCell), winLength))
+			return lastRole == Gomoku.PLAYER1 ? MIN+1 : MAX-1;
+		if (depth <= 0)
+			return scoreTotal;
+
+		//Look up the transposition table, a deep enough entry settles the position without searching
+		int alphaOrigin = alpha;
+		int betaOrigin = beta;
+		long entry = table.probe(hash);
+		int ttMove = TranspositionTable.NO_MOVE;
+		if (entry != 0) {
+			ttMove = TranspositionTable.move(entry);
+			if (ply != 0 && TranspositionTable.depth(entry) >= depth) {
+				int score = TranspositionTable.score(entry);
+				switch (TranspositionTable.bound(entry)) {
+				case TranspositionTable.EXACT: return score;
+				case TranspositionTable.LOWER: alpha = Math.max(alpha, score); break;
+				case TranspositionTable.UPPER: beta = Math.min(beta, score); break;
+				}
+				if (alpha >= beta)
+					return score;
+			}
+		}
+
+		int count = generateMoves(role, ply);
+		if (count == 0) //a full board is a draw
+			return 0;
+		long[] children = moves[ply];
+		if (ttMove != TranspositionTable.NO_MOVE)
+			moveToFront(children, count, unpackMove(ttMove));
+		if (ply == 0 && pvMove != 0)
+			moveToFront(children, count, pvMove);
+
+		//According to the scores, Player2 expects max score, Player1 expects minimum score
+		boolean maximizing = role == Gomoku.PLAYER2;
+		int bestScore = maximizing ? MIN : MAX;
+		long bestMove = 0;
+		for (int i=0; i<count; i++) {
+			long cell = children[i];
+			doMove(cell, role);
+			int score;
+			if (i == 0) {
+				score = negamax(cell, role, depth-1, ply+1, alpha, beta);
+			} else {
+				//Prove the move is no better than the best so far with a zero window, search it fully if it is
+				if (maximizing)
+					score = negamax(cell, role, depth-1, ply+1, alpha, alpha+1);
+				else
+					score = negamax(cell, role, depth-1, ply+1, beta-1, beta);
+				boolean better = score > alpha && score < beta;
+				if (better && !aborted)
+					score = negamax(cell, role, depth-1, ply+1, alpha, beta);
+			}
+			retreat(cell, role);
+			if (aborted || isTimeUp())
+				return bestScore;
+
+			if (maximizing) {
+				if (score > bestScore) {
+					bestScore = score;
+					bestMove = cell;
+				}
+				if (score > alpha) alpha = score;
+			} else {
+				if (score < bestScore) {
+					bestScore = score;
+					bestMove = cell;
+				}
+				if (score < beta) beta = score;
+			}
+			if (alpha >= beta) //cut-off
+				break;
+		}
+
+		int bound = TranspositionTable.EXACT;
+		if (bestScore <= alphaOrigin) bound = TranspositionTable.UPPER;
+		else if (bestScore >= betaOrigin) bound = TranspositionTable.LOWER;
+		table.store(hash, depth, bound, bestScore, packMove(bestMove));
+		if (ply == 0)
+			rootMove = bestMove;
+		return bestScore;
+	}
+
+	private boolean isTimeUp() {
+		if (--clockCountdown > 0)
+			return false;
+		clockCountdown = CLOCK_CHECK_NODES;
+		if (timed && rootDepth > 1 && System.nanoTime() - deadline >= 0)
+			aborted = true;
+		return aborted;
+	}
+
+	private static void moveToFront(long[] children, int count, long cell) {
+		for (int i=0; i<count; i++)
+			if (children[i] == cell) {
+				System.arraycopy(children, 0, children, 1, i);
+				children[0] = cell;
+				return;
+			}
+	}
+
+	/*
+	 * Pack a move for the transposition table, whose moves take 16 bits: as its offset from the first stone,
+	 * NO_MOVE if it's too far
+	 */
+	private int packMove(long cell) {
+		int row = CellMap.row(cell) - originRow;
+		int col = CellMap.col(cell) - originCol;
+		if (cell == 0 || Math.abs(row) > TABLE_RADIUS || Math.abs(col) > TABLE_RADIUS)
+			return TranspositionTable.NO_MOVE;
+		return (row + TABLE_RADIUS) << 8 | (col + TABLE_RADIUS);
+	}
+
+	private long unpackMove(int move) {
+		return CellMap.key(originRow + (move >>> 8) - TABLE_RADIUS, originCol + (move & 0xFF) - TABLE_RADIUS);
+	}
+
+	/*
+	 * Generate some better moves by heuristic searching for evaluation, the way AI.generateMoves() does. The
+	 * moves are left in moves[ply] best first, the count of them is returned.
+	 */
+	int generateMoves(int role, int ply) {
+		if (moves[ply] == null || moves[ply].length < cellCount) {
+			moveKeys[ply] = new long[Math.max(64, cellCount * 2)];
+			moves[ply] = new long[moveKeys[ply].length];
+		}
+		long[] keys = moveKeys[ply];
+		int opponent = roleReversal(role);
+		int[] myScore = scores[role];
+		int[] opScore = scores[opponent];
+		int[] mySize = classSize[role];
+		int[] opSize = classSize[opponent];
+
+		//Won when I have five
+		if (mySize[AI.C_FIVE] > 0) {
+			moves[ply][0] = cellKey[classSlots[role][AI.C_FIVE][0]];
+			return 1;
+		}
+
+		int tiers;
+		int limit = Integer.MAX_VALUE;
+		if (opSize[AI.C_FIVE] > 0) {
+			tiers = 1 << AI.OP_FIVE;
+		} else if (mySize[AI.C_FOUR_THREE] > 0) {
+			tiers = 1 << AI.MY_FOUR_THREE;
+		} else if (opSize[AI.C_FOUR_THREE] > 0) {
+			tiers = 1 << AI.OP_FOUR_THREE | 1 << AI.MY_HALF_OPEN_FOUR;
+		} else if (mySize[AI.C_DOUBLE_THREE] > 0) {
+			tiers = 1 << AI.MY_DOUBLE_THREE | 1 << AI.MY_HALF_OPEN_FOUR | 1 << AI.OP_HALF_OPEN_FOUR;
+		} else if (opSize[AI.C_DOUBLE_THREE] > 0) {
+			tiers = 1 << AI.OP_DOUBLE_THREE | 1 << AI.MY_HALF_OPEN_FOUR | 1 << AI.OP_HALF_OPEN_FOUR | 1 << AI.MY_THREE;
+		} else {
+			tiers = 1 << AI.MY_HALF_OPEN_FOUR | 1 << AI.OP_HALF_OPEN_FOUR | 1 << AI.MY_THREE | 1 << AI.OP_THREE
+					| 1 << AI.MY_TWO | 1 << AI.THE_REST;
+			limit = CHILDREN_LIMIT;
+		}
+
+		//Collect the candidates tier by tier from the class each tier is made of, THE_REST from every empty cell
+		int count = 0;
+		for (int tier=0; tier<AI.TIERS && count<limit; tier++) {
+			if ((tiers >>> tier & 1) == 0) continue;
+			boolean mine = tier % 2 == 1;
+			if (tier == AI.THE_REST) {
+				for (int slot=0; slot<cellCount; slot++)
+					if (stone[slot] == Gomoku.EMPTY && AI.tierOf(myScore[slot], opScore[slot]) == tier)
+						keys[count++] = packMoveKey(tier, myScore[slot], slot);
+				continue;
+			}
+			int player = mine ? role : opponent;
+			int[] slots = classSlots[player][(tier + 1) / 2];
+			for (int i=0; i<classSize[player][(tier + 1) / 2]; i++) {
+				int slot = slots[i];
+				if (AI.tierOf(myScore[slot], opScore[slot]) == tier)
+					keys[count++] = packMoveKey(tier, mine ? myScore[slot] : opScore[slot], slot);
+			}
+		}
+
+		//Selection sort the best ones to the front: by tier, then by higher score, then by slot
+		limit = Math.min(limit, count);
+		for (int i=0; i<limit; i++) {
+			int min = i;
+			for (int j=i+1; j<count; j++)
+				if (keys[j] < keys[min]) min = j;
+			long key = keys[min];
+			keys[min] = keys[i];
+			keys[i] = key;
+			moves[ply][i] = cellKey[(int) (key & (1 << SLOT_BITS) - 1)];
+		}
+		return limit;
+	}
+
+	private static long packMoveKey(int tier, int score, int slot) {
+		return (long) tier << 59 | (long) (Integer.MAX_VALUE - score) << SLOT_BITS | slot;
+	}
+
+	/*
+	 * Update the board and scores after making a move
+	 */
+	void doMove(long cell, int role) {
+		int row = CellMap.row(cell);
+		int col = CellMap.col(cell);
+		if (board.get(row, col) != Gomoku.EMPTY)
+			throw new RuntimeException("Wrong move, board[" + row + "][" + col + "] is not vacant.");
+		board.set(row, col, role);
+		hash ^= zobrist(role, cell);
+		updateCells(row, col, role);
+	}
+
+	/*
+	 * Update the board and scores after taking a move back
+	 */
+	void retreat(long cell, int role) {
+		int row = CellMap.row(cell);
+		int col = CellMap.col(cell);
+		if (board.get(row, col) != role)
+			throw new RuntimeException("Wrong retreat, board[" + row + "][" + col + "] is not " + role);
+		board.clear(row, col);
+		hash ^= zobrist(role, cell);
+		updateCells(row, col, Gomoku.EMPTY);
+	}
+
+	/*
+	 * Rescore the cells sharing a line with a stone placed (stone is its player) or removed (stone is EMPTY)
+	 * within reach. Each of them changes only on the line it shares, the stone's own cell on all four.
+	 */
+	private void updateCells(int row, int col, int stoneNow) {
+		int delta = stoneNow == Gomoku.EMPTY ? -1 : 1;
+		int span = 4 * reach + 1;
+		for (int d=0; d<BitBoard.DIRECTIONS; d++) {
+			//The stones of both players within reach of every cell to rescore, the stone at bit 2 * reach
+			long p1 = board.segment(Gomoku.PLAYER1, d, row, col, -2 * reach, span);
+			long p2 = board.segment(Gomoku.PLAYER2, d, row, col, -2 * reach, span);
+			long out = board.outside(d, row, col, -2 * reach, span);
+			for (int k=-reach; k<=reach; k++) {
+				int r = row + k * ROW_STEP[d];
+				int c = col + k * COL_STEP[d];
+				if (!board.isInside(r, c)) continue;
+				long cell = CellMap.key(r, c);
+				int slot = (int) slotOf.get(cell) - 1;
+				boolean counted = k != 0 || d == 0;	//the own cell counts its stone once
+				if (slot < 0) {
+					if (delta < 0) continue;	//the own cell of a lone stone, removed on the first line
+					slot = addCell(cell, r, c);
+				} else {
+					if (counted) {
+						nearStones[slot] += delta;
+						if (nearStones[slot] == 0) {
+							removeCell(slot);
+							continue;
+						}
+					}
+					int i = 2 * reach + k;
+					lineScores[slot * 8 + d * 2] = lineScore(p1, p2 | out, i);
+					lineScores[slot * 8 + d * 2 + 1] = lineScore(p2, p1 | out, i);
+				}
+				if (k == 0)
+					stone[slot] = stoneNow;
+				rescore(slot);
+			}
+		}
+	}
+
+	/*
+	 * The score of the cell at bit i of a line on the line, for the player owning mine
+	 */
+	private int lineScore(long mine, long blocked, int i) {
+		return patterns.score(Long.reverse(mine) >>> (64 - i), Long.reverse(blocked) >>> (64 - i),
+				mine >>> (i + 1), blocked >>> (i + 1));
+	}
+
+	/*
+	 * Start scoring a cell next to a new stone, its slot is returned
+	 */
+	private int addCell(long cell, int row, int col) {
+		if (cellCount == cellKey.length) {
+			int length = cellCount * 2;
+			cellKey = Arrays.copyOf(cellKey, length);
+			nearStones = Arrays.copyOf(nearStones, length);
+			stone = Arrays.copyOf(stone, length);
+			lineScores = Arrays.copyOf(lineScores, length * 8);
+			for (int player = Gomoku.PLAYER1; player <= Gomoku.PLAYER2; player++) {
+				scores[player] = Arrays.copyOf(scores[player], length);
+				classIndex[player] = Arrays.copyOf(classIndex[player], length);
+			}
+		}
+		int slot = cellCount++;
+		slotOf.put(cell, slot + 1);
+		cellKey[slot] = cell;
+		nearStones[slot] = 1;
+		stone[slot] = board.get(row, col);
+		for (int d=0; d<BitBoard.DIRECTIONS; d++) {
+			long p1 = board.segment(Gomoku.PLAYER1, d, row, col, -reach, 2 * reach + 1);
+			long p2 = board.segment(Gomoku.PLAYER2, d, row, col, -reach, 2 * reach + 1);
+			long out = board.outside(d, row, col, -reach, 2 * reach + 1);
+			lineScores[slot * 8 + d * 2] = lineScore(p1, p2 | out, reach);
+			lineScores[slot * 8 + d * 2 + 1] = lineScore(p2, p1 | out, reach);
+		}
+		for (int player = Gomoku.PLAYER1; player <= Gomoku.PLAYER2; player++) {
+			scores[player][slot] = 0;
+			classIndex[player][slot] = -1;
+		}
+		return slot;
+	}
+
+	/*
+	 * Stop scoring a cell no stone is near any more, the last slot takes its place
+	 */
+	private void removeCell(int slot) {
+		setScores(slot, 0, 0);
+		slotOf.put(cellKey[slot], 0);
+		int last = --cellCount;
+		if (slot == last)
+			return;
+		cellKey[slot] = cellKey[last];
+		nearStones[slot] = nearStones[last];
+		stone[slot] = stone[last];
+		System.arraycopy(lineScores, last * 8, lineScores, slot * 8, 8);
+		for (int player = Gomoku.PLAYER1; player <= Gomoku.PLAYER2; player++) {
+			scores[player][slot] = scores[player][last];
+			classIndex[player][slot] = classIndex[player][last];
+			if (classIndex[player][slot] >= 0)
+				classSlots[player][AI.classOf(scores[player][slot])][classIndex[player][slot]] = slot;
+		}
+		slotOf.put(cellKey[slot], slot + 1);
+	}
+
+	/*
+	 * Combine the line scores of a cell into its score for each player, like AI.countAllWayScore()
+	 */
+	private void rescore(int slot) {
+		int p1 = 0, p2 = 0;
+		if (stone[slot] == Gomoku.EMPTY) {
+			for (int i = slot * 8; i < slot * 8 + 8; i += 2) {
+				p1 = AI.scoreplus(p1, lineScores[i]);
+				p2 = AI.scoreplus(p2, lineScores[i + 1]);
+			}
+		}
+		setScores(slot, p1, p2);
+	}
+
+	private void setScores(int slot, int p1, int p2) {
+		scoreTotal += p2 - scores[Gomoku.PLAYER2][slot] - (p1 - scores[Gomoku.PLAYER1][slot]);
+		reclassify(Gomoku.PLAYER1, slot, p1);
+		reclassify(Gomoku.PLAYER2, slot, p2);
+		scores[Gomoku.PLAYER1][slot] = p1;
+		scores[Gomoku.PLAYER2][slot] = p2;
+	}
+
+	/*
+	 * Move a slot to the threat class of its new score for a player
+	 */
+	private void reclassify(int player, int slot, int newScore) {
+		int oldClass = AI.classOf(scores[player][slot]);
+		int newClass = AI.classOf(newScore);
+		if (oldClass == newClass) return;
+		if (oldClass < AI.CLASSES) {
+			int[] slots = classSlots[player][oldClass];
+			int index = classIndex[player][slot];
+			int moved = slots[--classSize[player][oldClass]];
+			slots[index] = moved;
+			classIndex[player][moved] = index;
+			classIndex[player][slot] = -1;
+		}
+		if (newClass < AI.CLASSES) {
+			int size = classSize[player][newClass]++;
+			if (size == classSlots[player][newClass].length)
+				classSlots[player][newClass] = Arrays.copyOf(classSlots[player][newClass], size * 2);
+			classSlots[player][newClass][size] = slot;
+			classIndex[player][slot] = size;
+		}
+	}
+
+	/*
+	 * The Zobrist key of a stone, mixed from its position so the unbounded board needs no table of keys
+	 */
+	private static long zobrist(int player, long cell) {
+		long z = cell * 3 + player;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/*
+	 * Evaluate a score for the whole board, positive is good for player2. Package-private for the benchmarks.
+	 */
+	int evaluate() {
+		return scoreTotal;
+	}
+
+	private static int roleReversal(int player) {
+		return player == Gomoku.PLAYER1 ? Gomoku.PLAYER2 : Gomoku.PLAYER1;
+	}
+
+	/**
+	 * Get which player is to move
+	 *
+	 * @return PLAYER1 or PLAYER2
+	 */
+	public int getCurrent() {
+		return playedCount % 2 == 0 ? Gomoku.PLAYER1 : Gomoku.PLAYER2;
+	}
+
+	/**
+	 * Get the status of the game
+	 *
+	 * @return 0: NOT_OVER, 1: PLAYER1, 2: PLAYER2, 3: GAME_DRAW
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Get how many stones on board
+	 *
+	 * @return stone count
+	 */
+	public int getStones() {
+		return board.getStones();
+	}
+
+	/**
+	 * Get how many cells are scored, the cells sharing a line with a stone within winLength-1. The memory and
+	 * the work of a move grow with it.
+	 *
+	 * @return scored cell count
+	 */
+	public int getScoredCells() {
+		return cellCount;
+	}
+
+	/**
+	 * Get the transposition table
+	 *
+	 * @return the transposition table of this AI
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Get how many nodes this AI has searched over all its moves
+	 *
+	 * @return node count
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+}
@@ -0,0 +1,222 @@
+/**
+ * SparseBoard.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * A board stored in hash maps, so its memory grows with the stones played instead of the area. It's the
+ * BitBoard for boards too large for it and for the unbounded board: besides the stones by position, each player
+ * owns the words of 64 cells along every line that has a stone, keyed by direction, line and word, so the stones
+ * along a line through a position are still read with a shift or two.
+ *
+ * Along a line the cells are numbered by row, or by column on a row: the direction steps are (0, 1) for
+ * HORIZONTAL, (1, 0) for VERTICAL, (1, -1) for SLASH and (1, 1) for BACKSLASH, the BitBoard directions.
+ * Coordinates may be negative on the unbounded board, their absolute values below MAX_COORD.
+ */
+public class SparseBoard {
+	public final static int MAX_COORD = 1 << 27;	//coordinates stay strictly inside (-MAX_COORD, MAX_COORD)
+	private static final int[] ROW_STEP = {0, 1, 1, 1};	//by direction
+	private static final int[] COL_STEP = {1, 0, -1, 1};
+	private final int size;
+	private final CellMap stones = new CellMap();	//key(row, col) -> player
+	private final CellMap[] lines = {null, new CellMap(), new CellMap()};	//lines[player]: line key -> word
+
+	/**
+	 * Constructor, build an empty board
+	 *
+	 * @param size how many rows or columns on the board, 0 for the unbounded board
+	 */
+	public SparseBoard(int size) {
+		if (size < 0 || size >= MAX_COORD)
+			throw new IllegalArgumentException("size should be in [0, " + MAX_COORD + "), got " + size);
+		this.size = size;
+	}
+
+	/**
+	 * Check if a position is on the board
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return true if the position is inside the bounds, always on the unbounded board within MAX_COORD
+	 */
+	public boolean isInside(int row, int col) {
+		if (size == 0)
+			return row > -MAX_COORD && row < MAX_COORD && col > -MAX_COORD && col < MAX_COORD;
+		return row >= 0 && row < size && col >= 0 && col < size;
+	}
+
+	/**
+	 * Place a stone
+	 *
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @param player	PLAYER1 or PLAYER2
+	 */
+	public void set(int row, int col, int player) {
+		if (!isInside(row, col))
+			throw new IllegalArgumentException("[" + row + ", " + col + "] is off the board");
+		long key = CellMap.key(row, col);
+		if (stones.get(key) != Gomoku.EMPTY) return;
+		stones.put(key, player);
+		for (int d=0; d<BitBoard.DIRECTIONS; d++) {
+			int pos = position(d, row, col);
+			long wordKey = wordKey(d, line(d, row, col), pos >>> 6);
+			lines[player].put(wordKey, lines[player].get(wordKey) | 1L << pos);
+		}
+	}
+
+	/**
+	 * Remove a stone
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 */
+	public void clear(int row, int col) {
+		long key = CellMap.key(row, col);
+		int player = (int) stones.get(key);
+		if (player == Gomoku.EMPTY) return;
+		stones.put(key, 0);
+		for (int d=0; d<BitBoard.DIRECTIONS; d++) {
+			int pos = position(d, row, col);
+			long wordKey = wordKey(d, line(d, row, col), pos >>> 6);
+			lines[player].put(wordKey, lines[player].get(wordKey) & ~(1L << pos));
+		}
+	}
+
+	/**
+	 * Get the status of a position
+	 *
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return EMPTY, PLAYER1 or PLAYER2
+	 */
+	public int get(int row, int col) {
+		return (int) stones.get(CellMap.key(row, col));
+	}
+
+	/**
+	 * Get the stones of a player along a line through a position
+	 *
+	 * @param player	PLAYER1 or PLAYER2
+	 * @param direction	HORIZONTAL, VERTICAL, SLASH or BACKSLASH of BitBoard
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @param from		the offset of the first cell to read from the position, in direction steps
+	 * @param length	how many cells to read, from 1 to 64
+	 * @return bit k is set if the player has a stone from+k steps away from the position
+	 */
+	public long segment(int player, int direction, int row, int col, int from, int length) {
+		int start = position(direction, row, col) + from;
+		int line = line(direction, row, col);
+		CellMap words = lines[player];
+		long low = words.get(wordKey(direction, line, start >>> 6));
+		int bit = start & 63;
+		long bits = low >>> bit;
+		if (bit + length > 64)
+			bits |= words.get(wordKey(direction, line, (start >>> 6) + 1)) << (64 - bit);
+		return length == 64 ? bits : bits & (1L << length) - 1;
+	}
+
+	/**
+	 * Get the cells off the board along a line through a position
+	 *
+	 * @param direction	HORIZONTAL, VERTICAL, SLASH or BACKSLASH of BitBoard
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @param from		the offset of the first cell to read from the position, in direction steps
+	 * @param length	how many cells to read, from 1 to 64
+	 * @return bit k is set if the cell from+k steps away from the position is outside the board
+	 */
+	public long outside(int direction, int row, int col, int from, int length) {
+		if (size == 0)
+			return 0;
+		//The cells inside form one run along the line, cut it out of the segment
+		long all = length == 64 ? -1L : (1L << length) - 1;
+		int first = Integer.MIN_VALUE, last = Integer.MAX_VALUE;
+		if (ROW_STEP[direction] == 0 && (row < 0 || row >= size) || COL_STEP[direction] == 0 && (col < 0 || col >= size))
+			return all;
+		if (ROW_STEP[direction] != 0) {
+			first = Math.max(first, -row);
+			last = Math.min(last, size - 1 - row);
+		}
+		if (COL_STEP[direction] > 0) {
+			first = Math.max(first, -col);
+			last = Math.min(last, size - 1 - col);
+		} else if (COL_STEP[direction] < 0) {
+			first = Math.max(first, col - (size - 1));
+			last = Math.min(last, col);
+		}
+		int low = Math.max(first - from, 0);
+		int high = Math.min(last - from, length - 1);
+		if (low > high)
+			return all;
+		long inside = (high == 63 ? -1L : (1L << (high + 1)) - 1) & -1L << low;
+		return all & ~inside;
+	}
+
+	/**
+	 * Winning condition check on all the lines cross this position, same rule as BitBoard.isWin()
+	 *
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @param winLength	how many stones in a row to win
+	 * @return true if match winning condition
+	 */
+	public boolean isWin(int row, int col, int winLength) {
+		int player = get(row, col);
+		if (player == Gomoku.EMPTY) return false;
+		int reach = winLength - 1;
+		for (int d=0; d<BitBoard.DIRECTIONS; d++) {
+			long line = segment(player, d, row, col, -reach, 2 * reach + 1);
+			int front = Math.min(Long.numberOfTrailingZeros(~(line >>> (reach + 1))), reach);
+			int back = Math.min(Long.numberOfLeadingZeros(~(line << (64 - reach))), reach);
+			if (front + back == reach)
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * The index of the line through a position among the lines of a direction
+	 */
+	private static int line(int direction, int row, int col) {
+		switch (direction) {
+		case BitBoard.HORIZONTAL: return row;
+		case BitBoard.VERTICAL: return col;
+		case BitBoard.SLASH: return row + col;
+		default: return row - col;
+		}
+	}
+
+	/*
+	 * The index of a position along its line of a direction, made non-negative
+	 */
+	private static int position(int direction, int row, int col) {
+		return (direction == BitBoard.HORIZONTAL ? col : row) + CellMap.BIAS;
+	}
+
+	private static long wordKey(int direction, int line, int word) {
+		return (long) direction << 60 | (long) (line + (1 << 30)) << 24 | word;
+	}
+
+	/**
+	 * Get how many stones on board
+	 *
+	 * @return stone count
+	 */
+	public int getStones() {
+		return stones.size();
+	}
+
+	/**
+	 * Get how many rows or columns on board
+	 *
+	 * @return the board size, 0 for the unbounded board
+	 */
+	public int getSize() {
+		return size;
+	}
+}
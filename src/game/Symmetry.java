@@ -0,0 +1,81 @@
+/**
+ * Symmetry.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+/**
+ * The 8 symmetries of a square board: the rotations and reflections. Symmetry s maps a position by swapping
+ * row and column if bit 0 is set, then mirroring the row if bit 1 is set, then mirroring the column if bit 2
+ * is set. Symmetry 0 is the identity.
+ */
+public class Symmetry {
+	public final static int COUNT = 8;	//how many symmetries a square board has
+
+	private Symmetry() {
+	}
+
+	/**
+	 * Map a row
+	 *
+	 * @param symmetry	the symmetry, from 0 to 7
+	 * @param size		how many rows or columns on the board
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @return the row of the mapped position
+	 */
+	public static int row(int symmetry, int size, int row, int col) {
+		int r = (symmetry & 1) == 0 ? row : col;
+		return (symmetry & 2) == 0 ? r : size - 1 - r;
+	}
+
+	/**
+	 * Map a column
+	 *
+	 * @param symmetry	the symmetry, from 0 to 7
+	 * @param size		how many rows or columns on the board
+	 * @param row		row of the position
+	 * @param col		column of the position
+	 * @return the column of the mapped position
+	 */
+	public static int col(int symmetry, int size, int row, int col) {
+		int c = (symmetry & 1) == 0 ? col : row;
+		return (symmetry & 4) == 0 ? c : size - 1 - c;
+	}
+
+	/**
+	 * Get the symmetry mapping positions back
+	 *
+	 * @param symmetry the symmetry, from 0 to 7
+	 * @return the inverse symmetry
+	 */
+	public static int inverse(int symmetry) {
+		//Mirrors before a swap act on the other axis after it
+		if ((symmetry & 1) == 0)
+			return symmetry;
+		return 1 | (symmetry & 2) << 1 | (symmetry & 4) >> 1;
+	}
+
+	/**
+	 * Find the symmetry giving a board its canonical hash, the smallest hash of the 8 mapped boards. Boards
+	 * that are symmetric to each other have the same canonical hash.
+	 *
+	 * @param zobrist	the keys to hash with
+	 * @param board		a square board
+	 * @return the symmetry of the smallest hash, zobrist.hash(board, symmetry) gives the hash
+	 */
+	public static int canonical(Zobrist zobrist, int[][] board) {
+		int best = 0;
+		long min = zobrist.hash(board, 0);
+		for (int s=1; s<COUNT; s++) {
+			long hash = zobrist.hash(board, s);
+			if (hash < min) {
+				min = hash;
+				best = s;
+			}
+		}
+		return best;
+	}
+}
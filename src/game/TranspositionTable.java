@@ -0,0 +1,217 @@
+/**
+ * TranspositionTable.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table remembering the search result of positions, so positions reached by different move
+ * orders are only searched once. Entries are kept in two primitive arrays: one for the packed data and one for
+ * the position hash xor the data, so a torn entry never verifies against a probing key. That makes the table
+ * safe to share between searching threads without locks, the counters are only approximate then.
+ */
+public class TranspositionTable {
+	public final static int DEF_SIZE_BITS = 18;		//2^18 entries, 4MB by default
+	public final static int NO_MOVE = -1;			//best move of an entry that has none
+	public final static int EXACT = 1;				//bound type: the score is the exact value
+	public final static int LOWER = 2;				//bound type: the value is at least the score
+	public final static int UPPER = 3;				//bound type: the value is at most the score
+
+	/**
+	 * How a new entry competes with the one already in its slot
+	 */
+	public enum Replacement {
+		ALWAYS,				//the newest entry always wins
+		DEPTH_PREFERRED		//keep a deeper entry of the current search, replace the rest
+	}
+
+	private final long[] keys;		//hash xor data for each slot
+	private final long[] data;		//packed score, move, depth, bound type and generation
+	private final int mask;
+	private final Replacement replacement;
+	private int generation;
+	private long hits;
+	private long misses;
+	private long collisions;
+
+	/**
+	 * Default constructor, build a table of 2^DEF_SIZE_BITS entries preferring deeper entries
+	 */
+	public TranspositionTable() {
+		this(DEF_SIZE_BITS, Replacement.DEPTH_PREFERRED);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param sizeBits		the table holds 2^sizeBits entries
+	 * @param replacement	the replacement policy
+	 */
+	public TranspositionTable(int sizeBits, Replacement replacement) {
+		if (sizeBits < 1 || sizeBits > 30)
+			throw new IllegalArgumentException("sizeBits should be in [1, 30], got " + sizeBits);
+		this.keys = new long[1 << sizeBits];
+		this.data = new long[1 << sizeBits];
+		this.mask = (1 << sizeBits) - 1;
+		this.replacement = replacement;
+	}
+
+	/**
+	 * Look up a position
+	 *
+	 * @param hash the Zobrist hash of the position
+	 * @return the packed entry, or 0 if the position is not in the table
+	 */
+	public long probe(long hash) {
+		int index = index(hash);
+		long entry = data[index];
+		if (entry == 0) {
+			misses++;
+			return 0;
+		}
+		if ((keys[index] ^ entry) != hash) {
+			misses++;
+			collisions++;
+			return 0;
+		}
+		hits++;
+		return entry;
+	}
+
+	/**
+	 * Store the search result of a position
+	 *
+	 * @param hash	the Zobrist hash of the position
+	 * @param depth	the remaining depth the position was searched
+	 * @param bound	EXACT, LOWER or UPPER
+	 * @param score	the score found
+	 * @param move	the best move found, packed as row * colSize + col, or NO_MOVE
+	 */
+	public void store(long hash, int depth, int bound, int score, int move) {
+		int index = index(hash);
+		long old = data[index];
+		if (replacement == Replacement.DEPTH_PREFERRED && old != 0
+				&& generation(old) == generation && depth(old) > depth && (keys[index] ^ old) != hash)
+			return;
+
+		//keep the old best move when the new result didn't find one
+		if (move == NO_MOVE && old != 0 && (keys[index] ^ old) == hash)
+			move = move(old);
+		long entry = (score & 0xFFFFFFFFL)
+				| ((long) ((move + 1) & 0xFFFF) << 32)
+				| ((long) (depth & 0xFF) << 48)
+				| ((long) bound << 56)
+				| ((long) generation << 58);
+		data[index] = entry;
+		keys[index] = hash ^ entry;
+	}
+
+	/**
+	 * Start a new search, entries of older searches become the first to be replaced
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0x3F;
+	}
+
+	/**
+	 * Remove all entries and reset the counters
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+		hits = misses = collisions = 0;
+	}
+
+	/**
+	 * Get the score of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return the score
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Get the best move of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return the move packed as row * colSize + col, or NO_MOVE
+	 */
+	public static int move(long entry) {
+		return (int) ((entry >>> 32) & 0xFFFF) - 1;
+	}
+
+	/**
+	 * Get the remaining depth of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return the depth the position was searched
+	 */
+	public static int depth(long entry) {
+		return (int) ((entry >>> 48) & 0xFF);
+	}
+
+	/**
+	 * Get the bound type of a packed entry
+	 *
+	 * @param entry the entry returned by probe()
+	 * @return EXACT, LOWER or UPPER
+	 */
+	public static int bound(long entry) {
+		return (int) ((entry >>> 56) & 0x3);
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> 58);
+	}
+
+	private int index(long hash) {
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	/**
+	 * Get how many probes found their position
+	 *
+	 * @return hit count
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get how many probes didn't find their position
+	 *
+	 * @return miss count, including the collisions
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get how many probes found their slot taken by another position
+	 *
+	 * @return collision count
+	 */
+	public long getCollisions() {
+		return collisions;
+	}
+
+	/**
+	 * Get the number of entries the table can hold
+	 *
+	 * @return table capacity
+	 */
+	public int getCapacity() {
+		return data.length;
+	}
+
+	@Override
+	public String toString() {
+		return "TranspositionTable[" + data.length + "]: hits=" + hits + ", misses=" + misses + ", collisions=" + collisions;
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * Zobrist.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing a board. The hash of a position is the xor of the key of every stone on it,
+ * so placing or removing a stone updates the hash with a single xor.
+ */
+public class Zobrist {
+	private static final long SEED = 0x5DEECE66DL;
+	private final int rowSize;
+	private final int colSize;
+	private final long[][] keys;	//keys[player][row * colSize + col]
+
+	/**
+	 * Constructor, generate the keys for a board. The keys are seeded so every instance with the same board size
+	 * produces the same hashes.
+	 *
+	 * @param rowSize how many rows on the board
+	 * @param colSize how many columns on the board
+	 */
+	public Zobrist(int rowSize, int colSize) {
+		this.rowSize = rowSize;
+		this.colSize = colSize;
+		this.keys = new long[3][rowSize * colSize];
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int player = Gomoku.PLAYER1; player <= Gomoku.PLAYER2; player++)
+			for (int i=0; i<rowSize*colSize; i++)
+				keys[player][i] = random.nextLong();
+	}
+
+	/**
+	 * Get the key of a stone
+	 *
+	 * @param player PLAYER1 or PLAYER2
+	 * @param row row of the position
+	 * @param col column of the position
+	 * @return the key to xor into the hash
+	 */
+	public long key(int player, int row, int col) {
+		return keys[player][row * colSize + col];
+	}
+
+	/**
+	 * Hash a whole board from scratch
+	 *
+	 * @param board the board to hash
+	 * @return the xor of the keys of all stones on board
+	 */
+	public long hash(int[][] board) {
+		long hash = 0;
+		for (int i=0; i<rowSize; i++)
+			for (int j=0; j<colSize; j++)
+				if (board[i][j] != Gomoku.EMPTY)
+					hash ^= key(board[i][j], i, j);
+		return hash;
+	}
+
+	/**
+	 * Hash a square board as if one of its symmetries was applied first
+	 *
+	 * @param board		the board to hash
+	 * @param symmetry	the Symmetry to map every stone by
+	 * @return the hash of the mapped board
+	 */
+	public long hash(int[][] board, int symmetry) {
+		long hash = 0;
+		for (int i=0; i<rowSize; i++)
+			for (int j=0; j<colSize; j++)
+				if (board[i][j] != Gomoku.EMPTY)
+					hash ^= key(board[i][j], Symmetry.row(symmetry, rowSize, i, j), Symmetry.col(symmetry, rowSize, i, j));
+		return hash;
+	}
+}
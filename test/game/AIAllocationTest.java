@@ -0,0 +1,45 @@
+/**
+ * AIAllocationTest.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a search allocates next to nothing once its move buffers are warm
+ */
+public class AIAllocationTest {
+	private static final int[][] OPENING = {{7, 7}, {7, 8}, {8, 9}, {6, 6}, {8, 7}};
+	private static final int DEPTH = 4;
+	//The returned Move, the win line list and a little boxing, a few hundred bytes at most
+	private static final long MAX_BYTES = 1024;
+
+	@Test
+	public void warmSearchAllocatesNextToNothing() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assertTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+
+		Gomoku gomoku = new Gomoku(15, 5, false, false);
+		for (int[] move : OPENING)
+			assertTrue(gomoku.makeAMove(move[0], move[1]));
+		AI ai = new AI(gomoku);
+		Move warmUp = ai.nextMove(DEPTH);
+		assertTrue(gomoku.makeAMove(warmUp.getRow(), warmUp.getCol()));
+		assertTrue(gomoku.makeAMove(9, 9));
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		Move move = ai.nextMove(DEPTH);
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+		assertNotNull(move);
+		assertTrue(allocated < MAX_BYTES, "the search allocated " + allocated + " bytes");
+	}
+}
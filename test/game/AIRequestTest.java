@@ -0,0 +1,63 @@
+/**
+ * AIRequestTest.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the asynchronous requestMove() API
+ */
+public class AIRequestTest {
+	private static final int[][] OPENING = {{7, 7}, {7, 8}, {8, 9}, {6, 6}, {8, 7}};
+
+	private static Gomoku opening() {
+		Gomoku gomoku = new Gomoku(15, 5, true, false);
+		for (int[] move : OPENING)
+			assertTrue(gomoku.makeAMove(move[0], move[1]));
+		return gomoku;
+	}
+
+	@Test
+	public void retreatAfterCancellingARunningSearch() throws Exception {
+		Gomoku gomoku = opening();
+		AI ai = new AI(gomoku);
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Move> thinking = ai.requestMove(Duration.ofSeconds(30),
+				(move, depth, score) -> started.countDown());
+		assertTrue(started.await(10, TimeUnit.SECONDS), "the search should complete its first iteration");
+
+		ai.cancelMove(thinking);
+		assertTrue(thinking.isCancelled());
+		assertNotNull(gomoku.retreat());
+		assertEquals(OPENING.length - 1, gomoku.getMoveCount());
+
+		//The AI picks the game up from the retreated position
+		Move move = ai.requestMove(2, null).get(30, TimeUnit.SECONDS);
+		assertEquals(gomoku.getCurrent(), move.getPlayer());
+		assertEquals(Gomoku.EMPTY, gomoku.getBoard()[move.getRow()][move.getCol()]);
+		assertTrue(gomoku.makeAMove(move.getRow(), move.getCol()));
+	}
+
+	@Test
+	public void cancelAQueuedRequest() throws Exception {
+		Gomoku gomoku = opening();
+		AI ai = new AI(gomoku);
+		CompletableFuture<Move> running = ai.requestMove(Duration.ofSeconds(30), null);
+		CompletableFuture<Move> queued = ai.requestMove(Duration.ofSeconds(30), null);
+		ai.cancelMove(queued);
+		assertTrue(queued.isCancelled());
+		ai.cancelMove(running);
+		assertTrue(running.isCancelled());
+	}
+}
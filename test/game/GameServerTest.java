@@ -0,0 +1,67 @@
+/**
+ * GameServerTest.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the GameServer protocol
+ */
+public class GameServerTest {
+
+	/*
+	 * Send one request and read its response
+	 */
+	private static String request(PrintWriter out, BufferedReader in, String line) throws Exception {
+		out.println(line);
+		out.flush();
+		return in.readLine();
+	}
+
+	@Test
+	public void rejectWinLengthsWithoutPatternTable() throws Exception {
+		try (GameServer server = new GameServer(0, 1, 4, SelfPlay.Player.depth(2), 12, 10);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			server.start();
+			assertEquals("ERR can't play 9 in a row on a 20x20 board", request(out, in, "NEW 20 9"));
+			assertEquals(0, server.getSessions());
+		}
+	}
+
+	@Test
+	public void failedSearchTakesTheMoveBack() throws Exception {
+		//A transposition table of 2^0 entries can't be made, so every search fails
+		try (GameServer server = new GameServer(0, 1, 4, SelfPlay.Player.time(Duration.ofMillis(50)), 0, 10);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			server.start();
+			assertTrue(request(out, in, "NEW 15 5 white").startsWith("ERR the search failed"));
+			assertEquals(0, server.getSessions(), "a session whose first AI move failed should be dropped");
+
+			String created = request(out, in, "NEW 15 5 black");
+			assertTrue(created.startsWith("OK "), created);
+			String id = created.split(" ")[1];
+			for (int i=0; i<2; i++)
+				assertTrue(request(out, in, "MOVE " + id + " 7 7").startsWith("ERR the search failed"),
+						"the human's move should be taken back, leaving the human to move");
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * GameStateFootprintTest.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that an idle server session is much smaller than a Gomoku. The bytes a thread allocates while building
+ * a game bound what the game keeps, without depending on the garbage collector like SessionFootprint does.
+ */
+public class GameStateFootprintTest {
+	private static final int MOVES = 20;
+	private static final int WORKERS = 8;		//AIs the pool holds
+	private static final int SESSIONS = 1000;	//idle games sharing them
+	private static final long MAX_STATE_BYTES = 512;
+
+	private final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private long allocated() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	@Test
+	public void sessionTakesAFractionOfAGomoku() {
+		assertTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		int[][] game = new int[MOVES][];
+		for (int i=0; i<MOVES; i++)
+			game[i] = new int[] {3 + i / 5 * 2 + i % 2, 3 + i % 5 * 2};
+
+		long state = 0, gomoku = 0, ai = 0;
+		for (int round=0; round<2; round++) {	//the first round loads the classes
+			long start = allocated();
+			GameState compact = new GameState(15, 5);
+			for (int[] move : game)
+				assertTrue(compact.play(move[0], move[1]));
+			long afterState = allocated();
+			Gomoku full = new Gomoku(15, 5, true, false);
+			for (int[] move : game)
+				assertTrue(full.makeAMove(move[0], move[1]));
+			long afterGomoku = allocated();
+			assertNotNull(new AI(full, new TranspositionTable(1, TranspositionTable.Replacement.DEPTH_PREFERRED)));
+			state = afterState - start;
+			gomoku = afterGomoku - afterState;
+			ai = allocated() - afterGomoku;
+		}
+
+		assertTrue(state < MAX_STATE_BYTES, "a GameState of " + MOVES + " moves took " + state + " bytes");
+		long session = state + ai * WORKERS / SESSIONS;
+		assertTrue(session * 10 < gomoku, "a session took " + session + " bytes, a Gomoku " + gomoku);
+	}
+}
@@ -0,0 +1,47 @@
+/**
+ * SearchCacheTest.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the size checks of SearchCache
+ */
+public class SearchCacheTest {
+	@TempDir
+	Path dir;
+
+	@Test
+	public void rejectSizesBeyondOneMapping() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> SearchCache.open(dir.resolve("big.cache"), 15, 5, SearchCache.MAX_SIZE_BITS + 1));
+		assertEquals("sizeBits should be in [1, 26], got 27", e.getMessage());
+	}
+
+	@Test
+	public void rejectCorruptSizeBits() throws Exception {
+		Path path = dir.resolve("search.cache");
+		SearchCache cache = SearchCache.open(path, 15, 5, 4);
+		cache.store(12345, 6, 100, 7);
+		assertEquals(6, SearchCache.depth(SearchCache.open(path, 15, 5, 4).probe(12345)));
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4).putInt(0, 31), 16);
+		}
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> SearchCache.open(path, 15, 5, 4));
+		assertEquals(path + " is not a search cache", e.getMessage());
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * SelfPlayTest.java
+ *
+ * @author Mingjie Deng
+ * @version 1.0 (Oct 16, 2026)
+ */
+package game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the random openings of SelfPlay
+ */
+public class SelfPlayTest {
+
+	@Test
+	public void longestOpeningOnATinyBoardFinishes() {
+		//5x5 with 4 in a row: every cell is near the center, and 6 random moves can't win yet
+		SelfPlay selfPlay = new SelfPlay(SelfPlay.Player.depth(2), SelfPlay.Player.depth(2), 5, 4, 6, 1);
+		List<SelfPlay.GameResult> results = assertTimeoutPreemptively(Duration.ofSeconds(60),
+				() -> selfPlay.run(8, 2));
+		assertEquals(8, results.size());
+		for (SelfPlay.GameResult result : results)
+			assertTrue(result.getRecord().getMoveCount() > 6);
+	}
+
+	@Test
+	public void rejectOpeningsThatCouldDecideTheGame() {
+		SelfPlay.Player player = SelfPlay.Player.depth(2);
+		new SelfPlay(player, player, 15, 5, 8, 1);
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> new SelfPlay(player, player, 15, 5, 9, 1));
+		assertEquals("openingMoves should be at most 8 on a 15x15 board with 5 in a row, got 9", e.getMessage());
+	}
+
+	@Test
+	public void rejectOpeningsBeyondTheCenter() {
+		SelfPlay.Player player = SelfPlay.Player.depth(2);
+		new SelfPlay(player, player, 19, 7, 12, 1);
+		assertThrows(IllegalArgumentException.class, () -> new SelfPlay(player, player, 3, 3, 5, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SelfPlay(player, player, 19, 15, 26, 1));
+	}
+}